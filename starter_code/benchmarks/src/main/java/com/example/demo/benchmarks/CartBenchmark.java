@@ -0,0 +1,80 @@
+package com.example.demo.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.UserOrder;
+
+/**
+ * Cart mutations and the cart to order copy, for carts of {@code lines}
+ * distinct items. Every line starts with a large quantity so removing one
+ * never empties it during an iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBenchmark {
+
+	static final int QUANTITY = 1_000_000_000;
+
+	@Param({"1", "10", "100"})
+	public int lines;
+
+	private List<Item> items;
+	private Cart cart;
+	private Cart smallCart;
+	private int next;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		items = Fixtures.items(lines);
+		cart = Fixtures.cart(items, QUANTITY);
+		smallCart = Fixtures.cart(items, 2);
+	}
+
+	private Item nextItem() {
+		Item item = items.get(next);
+		next = next + 1 == items.size() ? 0 : next + 1;
+		return item;
+	}
+
+	@Benchmark
+	public Cart addItem() {
+		cart.addItem(nextItem());
+		return cart;
+	}
+
+	@Benchmark
+	public Cart removeItem() {
+		cart.removeItem(nextItem());
+		return cart;
+	}
+
+	@Benchmark
+	public Cart createCart() {
+		return Cart.CreateCart(1L, items, Fixtures.user());
+	}
+
+	@Benchmark
+	public UserOrder createOrderFromCart() {
+		return UserOrder.createFromCart(smallCart);
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.demo.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.services.OrderAnalytics;
+
+/**
+ * Line state of large carts and the orders made from them, {@code lines}
+ * distinct items of {@code quantity} units each:
+ * <ul>
+ * <li>{@code cartQuantity}: one line of the cart by item id</li>
+ * <li>{@code orderQuantity}: one line of the order by item id</li>
+ * <li>{@code orderQuantityByScan}: the same, counting the order's units</li>
+ * <li>{@code createOrderFromCart}: the cart to order copy</li>
+ * <li>{@code recordOrder}: counting the order in the sales analytics</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartLinesBenchmark {
+
+	@Param({"1000"})
+	public int lines;
+
+	@Param({"3"})
+	public int quantity;
+
+	private List<Item> items;
+	private Cart cart;
+	private UserOrder order;
+	private OrderAnalytics analytics;
+	private int next;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		items = Fixtures.items(lines);
+		cart = Fixtures.cart(items, quantity);
+		order = UserOrder.createFromCart(cart);
+		analytics = new OrderAnalytics(null, 60, 60, 100);
+	}
+
+	private Item nextItem() {
+		Item item = items.get(next);
+		next = next + 1 == items.size() ? 0 : next + 1;
+		return item;
+	}
+
+	@Benchmark
+	public int cartQuantity() {
+		return cart.getQuantity(nextItem());
+	}
+
+	@Benchmark
+	public long orderQuantity() {
+		return order.getQuantity(nextItem().getId());
+	}
+
+	@Benchmark
+	public long orderQuantityByScan() {
+		long itemId = nextItem().getId();
+		for(OrderLine line : order.getLines()) {
+			if(line.getItemId() == itemId) {
+				return line.getQuantity();
+			}
+		}
+		return 0;
+	}
+
+	@Benchmark
+	public UserOrder createOrderFromCart() {
+		return UserOrder.createFromCart(cart);
+	}
+
+	@Benchmark
+	public OrderAnalytics recordOrder() {
+		analytics.record(order);
+		return analytics;
+	}
+}
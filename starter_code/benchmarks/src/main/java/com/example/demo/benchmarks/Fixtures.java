@@ -0,0 +1,39 @@
+package com.example.demo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.User;
+
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+	static List<Item> items(int count) {
+		List<Item> items = new ArrayList<>(count);
+		for(int i = 1; i <= count; i++) {
+			items.add(Item.CreateItem((long) i, "Widget " + i,
+					Money.ofMinor(100 + i), "A widget with number " + i));
+		}
+		return items;
+	}
+
+	static User user() {
+		return User.CreateUser(1L, "benchmark", "password");
+	}
+
+	/**
+	 * A cart holding {@code quantity} of each of {@code items}.
+	 */
+	static Cart cart(List<Item> items, int quantity) {
+		User user = user();
+		Cart cart = Cart.CreateCart(1L, new ArrayList<>(), user);
+		items.forEach(item -> cart.addItem(item, quantity));
+		user.setCart(cart);
+		return cart;
+	}
+}
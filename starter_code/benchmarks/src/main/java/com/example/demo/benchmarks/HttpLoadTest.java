@@ -0,0 +1,156 @@
+package com.example.demo.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load against a running application: every client sends a
+ * request, waits for the answer and sends the next one. Not a JMH benchmark,
+ * run it with
+ * <pre>
+ * mvn -B compile exec:java -Dexec.mainClass=com.example.demo.benchmarks.HttpLoadTest \
+ *     -Dexec.args="endpoint=addToCart clients=10000 users=200 warmup=10 seconds=30"
+ * </pre>
+ * {@code endpoint} is {@code addToCart} or {@code submit}. The users are
+ * created and logged in first, and each gets one line in its cart so
+ * {@code submit} has something to order. Latencies are measured on the
+ * client, so they include the time spent waiting for a connection or a
+ * server thread.
+ */
+public class HttpLoadTest {
+
+	private static final String PASSWORD = "password1";
+	private static final int MAX_SAMPLES = 2_000_000;
+
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+	private final String base;
+	private final Duration timeout;
+
+	private final long[] latencies = new long[MAX_SAMPLES];
+	private final AtomicInteger samples = new AtomicInteger();
+	private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+	private volatile boolean recording;
+	private volatile boolean running = true;
+
+	private HttpLoadTest(String base, Duration timeout) {
+		this.base = base;
+		this.timeout = timeout;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>();
+		for(String arg : args) {
+			String[] pair = arg.split("=", 2);
+			options.put(pair[0], pair[1]);
+		}
+		String endpoint = options.getOrDefault("endpoint", "addToCart");
+		int clients = Integer.parseInt(options.getOrDefault("clients", "10000"));
+		int users = Integer.parseInt(options.getOrDefault("users", "200"));
+		int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+		int seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+		HttpLoadTest test = new HttpLoadTest(options.getOrDefault("base", "http://localhost:8080"),
+				Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "60"))));
+
+		String[] tokens = test.createUsers(users);
+		HttpRequest[] requests = new HttpRequest[users];
+		for(int i = 0; i < users; i++) {
+			requests[i] = endpoint.equals("submit")
+					? test.post("/api/order/submit/load-" + i, tokens[i], "")
+					: test.post("/api/cart/addToCart", tokens[i],
+							"{\"username\":\"load-" + i + "\",\"itemId\":1,\"quantity\":1}");
+		}
+
+		System.out.printf("%s: %d clients over %d users, %ds warmup, %ds measured%n",
+				endpoint, clients, users, warmup, seconds);
+		for(int i = 0; i < clients; i++) {
+			test.send(requests[i % users]);
+		}
+		TimeUnit.SECONDS.sleep(warmup);
+		test.recording = true;
+		long start = System.nanoTime();
+		TimeUnit.SECONDS.sleep(seconds);
+		test.recording = false;
+		long elapsed = System.nanoTime() - start;
+		test.running = false;
+
+		test.report(elapsed);
+		System.exit(0);
+	}
+
+	private String[] createUsers(int users) throws Exception {
+		String[] tokens = new String[users];
+		for(int i = 0; i < users; i++) {
+			String credentials = "{\"username\":\"load-" + i + "\",\"password\":\"" + PASSWORD + "\"";
+			client.send(post("/api/user/create", null, credentials + ",\"confirmPassword\":\"" + PASSWORD + "\"}"),
+					HttpResponse.BodyHandlers.discarding());
+			HttpResponse<Void> login = client.send(post("/login", null, credentials + "}"),
+					HttpResponse.BodyHandlers.discarding());
+			tokens[i] = login.headers().firstValue("Authorization")
+					.orElseThrow(() -> new IllegalStateException("Couldn't log in, status " + login.statusCode()));
+			client.send(post("/api/cart/addToCart", tokens[i], "{\"username\":\"load-" + i + "\",\"itemId\":1,\"quantity\":1}"),
+					HttpResponse.BodyHandlers.discarding());
+		}
+		return tokens;
+	}
+
+	private HttpRequest post(String path, String token, String body) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + path))
+				.timeout(timeout)
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body));
+		if(token != null) {
+			builder.header("Authorization", token);
+		}
+		return builder.build();
+	}
+
+	private void send(HttpRequest request) {
+		long sent = System.nanoTime();
+		client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+			if(recording) {
+				int sample = samples.getAndIncrement();
+				if(sample < MAX_SAMPLES) {
+					latencies[sample] = System.nanoTime() - sent;
+				}
+				if(failure instanceof CompletionException && failure.getCause() != null) {
+					failure = failure.getCause();
+				}
+				String outcome = failure != null ? failure.getClass().getSimpleName() : Integer.toString(response.statusCode());
+				outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+			}
+			if(running) {
+				send(request);
+			}
+		});
+	}
+
+	private void report(long elapsedNanos) {
+		int count = Math.min(samples.get(), MAX_SAMPLES);
+		long[] sorted = Arrays.copyOf(latencies, count);
+		Arrays.sort(sorted);
+		System.out.printf("requests %d, %.1f req/s%n", count, count / (elapsedNanos / 1e9));
+		System.out.printf("latency ms: p50 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+				percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 0.999), percentile(sorted, 1));
+		System.out.println("outcomes " + new TreeMap<>(outcomes));
+	}
+
+	private static double percentile(long[] sorted, double fraction) {
+		if(sorted.length == 0) {
+			return Double.NaN;
+		}
+		int index = (int) Math.ceil(fraction * sorted.length) - 1;
+		return sorted[Math.max(0, index)] / 1e6;
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.demo.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.security.JWTTokenVerifier;
+import com.example.demo.security.SecurityConstants;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Token work done per request by the security filters: signing on login in
+ * {@code JWTAuthenticationFilter}, and verification in
+ * {@code JWTAuthenticationVerficationFilter}, both the full HMAC check and
+ * the cached path {@link JWTTokenVerifier} takes for a token it has seen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+	// same secret and algorithm the filters use
+	private static final Algorithm ALGORITHM = Algorithm.HMAC512(SecurityConstants.SECRET.getBytes());
+
+	private JWTVerifier verifier;
+	private JWTTokenVerifier tokenVerifier;
+	private String token;
+
+	@Setup
+	public void setup() {
+		verifier = JWT.require(ALGORITHM).build();
+		tokenVerifier = new JWTTokenVerifier(10_000, new SimpleMeterRegistry());
+		token = sign();
+		tokenVerifier.verify(token);
+	}
+
+	@Benchmark
+	public String sign() {
+		return JWT.create()
+				.withSubject("benchmark")
+				.withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME))
+				.sign(ALGORITHM);
+	}
+
+	@Benchmark
+	public DecodedJWT verify() {
+		return verifier.verify(token);
+	}
+
+	@Benchmark
+	public String verifyCached() {
+		return tokenVerifier.verify(token);
+	}
+}
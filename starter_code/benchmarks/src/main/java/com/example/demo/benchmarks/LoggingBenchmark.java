@@ -0,0 +1,97 @@
+package com.example.demo.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.FileAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.PatternLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.demo.logging.RingBufferAppender;
+
+/**
+ * Cost on the calling thread of the INFO line the cart endpoints log per
+ * request, through SLF4J into a log4j file appender:
+ * <ul>
+ * <li>{@code sync-location}: the old setup, written inline with %F:%L</li>
+ * <li>{@code sync}: written inline without location info</li>
+ * <li>{@code async}: queued on {@link RingBufferAppender}; under this
+ * back-to-back load most events are dropped, the teardown prints how many</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+	@Param({"sync-location", "sync", "async"})
+	public String mode;
+
+	private Path file;
+	private Appender appender;
+	private org.apache.log4j.Logger log4jLogger;
+	private Logger logger;
+
+	@Setup
+	public void setup() throws IOException {
+		file = Files.createTempFile("logging-benchmark", ".log");
+
+		String pattern = mode.equals("sync-location")
+				? "%d{dd-MM-yyyy HH:mm:ss} %-5p %c{1}:%L - %m%n"
+				: "%d{dd-MM-yyyy HH:mm:ss} %-5p %c{1} - %m%n";
+		FileAppender fileAppender = new FileAppender(new PatternLayout(pattern), file.toString(), true);
+
+		if(mode.equals("async")) {
+			RingBufferAppender ringBuffer = new RingBufferAppender();
+			ringBuffer.setName("benchmark");
+			ringBuffer.addAppender(fileAppender);
+			ringBuffer.activateOptions();
+			appender = ringBuffer;
+		} else {
+			appender = fileAppender;
+		}
+
+		String name = "com.example.demo.controllers.CartController." + mode;
+		log4jLogger = LogManager.getLogger(name);
+		log4jLogger.setAdditivity(false);
+		log4jLogger.setLevel(Level.INFO);
+		log4jLogger.addAppender(appender);
+		logger = LoggerFactory.getLogger(name);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		log4jLogger.removeAllAppenders();
+		if(appender instanceof RingBufferAppender) {
+			System.out.println("dropped events: " + ((RingBufferAppender) appender).getDroppedEvents());
+		}
+		appender.close();
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public void logAddToCart() {
+		logger.info("Item {}, with quantity {} to was added to {} 's cart", 1L, 2, "benchmark");
+	}
+}
@@ -0,0 +1,127 @@
+package com.example.demo.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.demo.events.OrderEventLog;
+import com.example.demo.events.OrderEventReader;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+
+/**
+ * Order events per second through {@link OrderEventLog}:
+ * <ul>
+ * <li>{@code append}: one order per call, the way OrderController.submit
+ * appends, under the given fsync policy</li>
+ * <li>{@code appendBatch}: 100 orders per call, the way the async submission
+ * queue appends a persisted batch</li>
+ * <li>{@code tail}: a reader polling a filled log, reading every field</li>
+ * </ul>
+ * The log starts empty every iteration, so the segments stay on this
+ * machine's page cache and disk rather than growing across the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderEventLogBenchmark {
+
+	private static final int BATCH = 100;
+	private static final int TAILED = 1_000_000;
+	private static final int POLL = 1000;
+
+	@Param({"never", "interval"})
+	public String fsync;
+
+	private final List<UserOrder> orders = new ArrayList<>();
+	private Path directory;
+	private OrderEventLog log;
+	private OrderEventReader reader;
+	private int next;
+
+	@Setup(Level.Iteration)
+	public void setup() throws IOException {
+		User user = Fixtures.user();
+		List<Item> items = Fixtures.items(3);
+		for(int i = 0; i < BATCH; i++) {
+			UserOrder order = new UserOrder();
+			order.setId((long) i + 1);
+			order.setReference(UUID.randomUUID().toString());
+			order.setUser(user);
+			items.forEach(item -> order.addItem(item, 1));
+			order.setCreatedAt(Instant.now());
+			orders.add(order);
+		}
+
+		directory = Files.createTempDirectory("order-events");
+		log = new OrderEventLog(directory, 1 << 20, OrderEventLog.Fsync.valueOf(fsync.toUpperCase(Locale.ROOT)), 1000);
+		for(int i = 0; i < TAILED; i += BATCH) {
+			log.append(orders);
+		}
+		reader = log.openReader("benchmark");
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() throws IOException {
+		log.close();
+		orders.clear();
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public long append() throws IOException {
+		next = (next + 1) % BATCH;
+		return log.append(orders.get(next));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public long appendBatch() throws IOException {
+		return log.append(orders);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POLL)
+	public int tail(Blackhole blackhole) throws IOException {
+		if(reader.getOffset() + POLL > TAILED) {
+			reader.seek(0);
+		}
+		return reader.poll(event -> {
+			blackhole.consume(event.getOrderId());
+			blackhole.consume(event.getUserId());
+			blackhole.consume(event.getTotalMinorUnits());
+			blackhole.consume(event.getCreatedAtEpochMillis());
+			blackhole.consume(event.getUnits());
+		}, POLL);
+	}
+}
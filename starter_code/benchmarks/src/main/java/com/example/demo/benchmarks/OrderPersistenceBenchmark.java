@@ -0,0 +1,104 @@
+package com.example.demo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+
+/**
+ * Orders persisted per second through {@code OrderRepository.saveAll}, the
+ * path the queued order writers take, against the application's own H2
+ * schema. Each order carries {@link #ITEMS_PER_ORDER} units of two items, so
+ * one order is one {@code user_order} row plus an {@code order_line} row per item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderPersistenceBenchmark {
+
+	static final int ORDERS = 100;
+	static final int ITEMS_PER_ORDER = 5;
+
+	@Param({"0", "50"})
+	public int jdbcBatchSize;
+
+	private ConfigurableApplicationContext context;
+	private OrderRepository orderRepository;
+	private JdbcTemplate jdbcTemplate;
+
+	private User user;
+	private List<Item> items;
+
+	@Setup
+	public void startApplication() {
+		SpringApplication application = new SpringApplication(PersistenceConfiguration.class);
+		application.setWebApplicationType(WebApplicationType.NONE);
+		context = application.run(
+				"--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+				"--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+
+		orderRepository = context.getBean(OrderRepository.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+		User created = User.CreateUser(0L, "benchmark", "password");
+		created.setCart(new Cart());
+		user = context.getBean(UserRepository.class).save(created);
+		items = context.getBean(ItemRepository.class).findAll().subList(0, 2);
+	}
+
+	@TearDown(Level.Iteration)
+	public void deleteOrders() {
+		jdbcTemplate.update("delete from order_line");
+		jdbcTemplate.update("delete from user_order");
+	}
+
+	@TearDown
+	public void stopApplication() {
+		context.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ORDERS)
+	public List<UserOrder> saveOrders() {
+		List<UserOrder> orders = new ArrayList<>(ORDERS);
+		for(int i = 0; i < ORDERS; i++) {
+			UserOrder order = new UserOrder();
+			order.setReference(Long.toString(System.nanoTime()) + '-' + i);
+			order.setUser(user);
+			for(int j = 0; j < ITEMS_PER_ORDER; j++) {
+				order.addItem(items.get(j % items.size()), 1);
+			}
+			orders.add(order);
+		}
+		return orderRepository.saveAll(orders);
+	}
+}
@@ -0,0 +1,18 @@
+package com.example.demo.benchmarks;
+
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * The application's JPA layer on its own: entities, repositories and the
+ * data source, without the web and security configuration that needs a
+ * servlet container.
+ */
+@Configuration
+@EnableAutoConfiguration
+@EnableJpaRepositories("com.example.demo.model.persistence.repositories")
+@EntityScan("com.example.demo.model.persistence")
+public class PersistenceConfiguration {
+}
@@ -0,0 +1,86 @@
+package com.example.demo.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.CartResponse;
+import com.example.demo.model.responses.OrderResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Response bodies of the cart and order endpoints, written with an object
+ * mapper configured the way Spring MVC configures its own. The entity
+ * variants are how the controllers used to answer; the response variants
+ * include copying the entity into its response object. {@code bytes} is the
+ * JSON written per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param({"1", "10", "100"})
+	public int lines;
+
+	private ObjectMapper objectMapper;
+	private Cart cart;
+	private UserOrder order;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Written {
+		public long bytes;
+	}
+
+	@Setup
+	public void setup() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		cart = Fixtures.cart(Fixtures.items(lines), 2);
+		order = UserOrder.createFromCart(cart);
+		order.setId(1L);
+	}
+
+	@Benchmark
+	public byte[] writeCart(Written written) throws JsonProcessingException {
+		return count(written, objectMapper.writeValueAsBytes(cart));
+	}
+
+	@Benchmark
+	public byte[] writeCartResponse(Written written) throws JsonProcessingException {
+		return count(written, objectMapper.writeValueAsBytes(CartResponse.createFrom(cart)));
+	}
+
+	@Benchmark
+	public byte[] writeOrder(Written written) throws JsonProcessingException {
+		return count(written, objectMapper.writeValueAsBytes(order));
+	}
+
+	@Benchmark
+	public byte[] writeOrderResponse(Written written) throws JsonProcessingException {
+		return count(written, objectMapper.writeValueAsBytes(OrderResponse.createFrom(order)));
+	}
+
+	private static byte[] count(Written written, byte[] json) {
+		written.bytes += json.length;
+		return json;
+	}
+}
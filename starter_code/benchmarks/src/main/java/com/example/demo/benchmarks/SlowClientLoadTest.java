@@ -0,0 +1,237 @@
+package com.example.demo.benchmarks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds many connections open against a large read, each reading its
+ * response at a trickle, to see how many a server keeps in flight at once.
+ * Not a JMH benchmark, run it against a running application with
+ * <pre>
+ * mvn -B compile exec:java -Dexec.mainClass=com.example.demo.benchmarks.SlowClientLoadTest \
+ *     -Dexec.args="target=http://localhost:8082 connections=2000 rate=4096 seconds=30"
+ * </pre>
+ * {@code target} is the MVC server on 8080 or the reactive read API on 8082,
+ * both serve {@code GET /api/order/history/{username}}. The first run creates
+ * the user and imports {@code orders} orders for it through {@code app}.
+ * Every connection reads {@code rate} bytes a second through a small receive
+ * buffer and is replaced by a new one when its response ends. A connection
+ * counts as in flight from its first response byte to its end, the rest are
+ * still waiting for the server.
+ */
+public class SlowClientLoadTest {
+
+	private static final String USERNAME = "slow-reader";
+	private static final String PASSWORD = "password1";
+	private static final int IMPORT_BATCH = 500;
+	private static final int TICKS_PER_SECOND = 10;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+	private final String app;
+
+	private SlowClientLoadTest(String app) {
+		this.app = app;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>();
+		for(String arg : args) {
+			String[] pair = arg.split("=", 2);
+			options.put(pair[0], pair[1]);
+		}
+		URI target = URI.create(options.getOrDefault("target", "http://localhost:8082"));
+		int connections = Integer.parseInt(options.getOrDefault("connections", "2000"));
+		int orders = Integer.parseInt(options.getOrDefault("orders", "2000"));
+		int rate = Integer.parseInt(options.getOrDefault("rate", "4096"));
+		int receiveBuffer = Integer.parseInt(options.getOrDefault("receiveBuffer", "4096"));
+		int seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+		SlowClientLoadTest test = new SlowClientLoadTest(options.getOrDefault("app", "http://localhost:8080"));
+
+		String token = test.login(orders);
+		byte[] request = ("GET /api/order/history/" + USERNAME + " HTTP/1.1\r\n"
+				+ "Host: " + target.getHost() + "\r\n"
+				+ "Authorization: " + token + "\r\n"
+				+ "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+		InetSocketAddress address = new InetSocketAddress(target.getHost(), target.getPort());
+
+		System.out.printf("%s: %d connections reading %d B/s each, %ds%n", target, connections, rate, seconds);
+		new Readers(address, request, receiveBuffer, rate / TICKS_PER_SECOND).run(connections, seconds);
+		System.exit(0);
+	}
+
+	private String login(int orders) throws Exception {
+		String credentials = "{\"username\":\"" + USERNAME + "\",\"password\":\"" + PASSWORD + "\"";
+		HttpResponse<Void> created = client.send(post("/api/user/create", null,
+				credentials + ",\"confirmPassword\":\"" + PASSWORD + "\"}"), HttpResponse.BodyHandlers.discarding());
+		HttpResponse<Void> login = client.send(post("/login", null, credentials + "}"),
+				HttpResponse.BodyHandlers.discarding());
+		String token = login.headers().firstValue("Authorization")
+				.orElseThrow(() -> new IllegalStateException("Couldn't log in, status " + login.statusCode()));
+		if(created.statusCode() == 200) {
+			for(int imported = 0; imported < orders; imported += IMPORT_BATCH) {
+				StringBuilder batch = new StringBuilder("[");
+				for(int i = imported; i < Math.min(orders, imported + IMPORT_BATCH); i++) {
+					batch.append(i == imported ? "" : ",")
+							.append("{\"username\":\"" + USERNAME + "\",\"items\":{\"1\":2,\"2\":1}}");
+				}
+				client.send(post("/api/order/import", token, batch.append("]").toString()),
+						HttpResponse.BodyHandlers.discarding());
+			}
+			System.out.printf("imported %d orders for %s%n", orders, USERNAME);
+		}
+		return token;
+	}
+
+	private HttpRequest post(String path, String token, String body) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(app + path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body));
+		if(token != null) {
+			builder.header("Authorization", token);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * All connections on one selector, each allowed {@code quota} bytes a tick.
+	 */
+	private static class Readers {
+
+		private final InetSocketAddress address;
+		private final byte[] request;
+		private final int receiveBuffer;
+		private final ByteBuffer buffer;
+
+		private final Selector selector;
+		private int inFlight;
+		private int peakInFlight;
+		private long completed;
+		private long failed;
+		private long bytes;
+		private long[] firstByteNanos = new long[1024];
+		private int firstBytes;
+
+		Readers(InetSocketAddress address, byte[] request, int receiveBuffer, int quota) throws IOException {
+			this.address = address;
+			this.request = request;
+			this.receiveBuffer = receiveBuffer;
+			this.buffer = ByteBuffer.allocate(Math.max(1, quota));
+			this.selector = Selector.open();
+		}
+
+		void run(int connections, int seconds) throws IOException, InterruptedException {
+			for(int i = 0; i < connections; i++) {
+				open();
+			}
+			long tickNanos = TimeUnit.SECONDS.toNanos(1) / TICKS_PER_SECOND;
+			for(int second = 1; second <= seconds; second++) {
+				long bytesBefore = bytes;
+				for(int tick = 0; tick < TICKS_PER_SECOND; tick++) {
+					long next = System.nanoTime() + tickNanos;
+					tick();
+					TimeUnit.NANOSECONDS.sleep(Math.max(0, next - System.nanoTime()));
+				}
+				peakInFlight = Math.max(peakInFlight, inFlight);
+				System.out.printf("%3ds in flight %5d, waiting %5d, completed %6d, failed %d, %.1f MB/s%n",
+						second, inFlight, selector.keys().size() - inFlight, completed, failed,
+						(bytes - bytesBefore) / 1e6);
+			}
+			long[] sorted = Arrays.copyOf(firstByteNanos, firstBytes);
+			Arrays.sort(sorted);
+			System.out.printf("peak in flight %d of %d, %d completed, time to first byte ms: p50 %.1f, p99 %.1f%n",
+					peakInFlight, connections, completed, percentile(sorted, 0.5), percentile(sorted, 0.99));
+		}
+
+		private void open() throws IOException {
+			SocketChannel channel = SocketChannel.open();
+			channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBuffer);
+			channel.configureBlocking(false);
+			channel.connect(address);
+			channel.register(selector, SelectionKey.OP_CONNECT, new Connection());
+		}
+
+		private void tick() throws IOException {
+			selector.selectNow();
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while(keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				SocketChannel channel = (SocketChannel) key.channel();
+				Connection connection = (Connection) key.attachment();
+				try {
+					if(key.isConnectable()) {
+						channel.finishConnect();
+						channel.write(ByteBuffer.wrap(request));
+						key.interestOps(SelectionKey.OP_READ);
+					} else if(key.isReadable()) {
+						read(channel, connection);
+					}
+				} catch (IOException e) {
+					failed++;
+					close(key, connection);
+				}
+			}
+		}
+
+		private void read(SocketChannel channel, Connection connection) throws IOException {
+			buffer.clear();
+			int read = channel.read(buffer);
+			if(read > 0) {
+				bytes += read;
+				if(!connection.started) {
+					connection.started = true;
+					inFlight++;
+					recordFirstByte(System.nanoTime() - connection.opened);
+				}
+			} else if(read < 0) {
+				completed++;
+				close(channel.keyFor(selector), connection);
+			}
+		}
+
+		private void close(SelectionKey key, Connection connection) throws IOException {
+			if(connection.started) {
+				inFlight--;
+			}
+			key.cancel();
+			key.channel().close();
+			open();
+		}
+
+		private void recordFirstByte(long nanos) {
+			if(firstBytes == firstByteNanos.length) {
+				firstByteNanos = Arrays.copyOf(firstByteNanos, firstBytes * 2);
+			}
+			firstByteNanos[firstBytes++] = nanos;
+		}
+	}
+
+	private static class Connection {
+
+		final long opened = System.nanoTime();
+		boolean started;
+	}
+
+	private static double percentile(long[] sorted, double fraction) {
+		if(sorted.length == 0) {
+			return Double.NaN;
+		}
+		int index = (int) Math.ceil(fraction * sorted.length) - 1;
+		return sorted[Math.max(0, index)] / 1e6;
+	}
+}
@@ -0,0 +1,170 @@
+package com.example.demo.benchmarks;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Starts the application over and over and times how long it takes until it
+ * answers its first request, with the default settings, the fast-start
+ * profile, and the fast-start profile with the class data sharing archive.
+ * Not a JMH benchmark, build the application with the fast-start Maven
+ * profile first, then run it with
+ * <pre>
+ * (cd .. &amp;&amp; mvn -B -Pfast-start package -DskipTests)
+ * mvn -B compile exec:java -Dexec.mainClass=com.example.demo.benchmarks.StartupTimeTest \
+ *     -Dexec.args="runs=5"
+ * </pre>
+ * {@code app} is the application's project directory. Every start gets its
+ * own working directory and ports from {@code port} on, and is stopped once
+ * it has answered. The first request is a sign up, which goes through the
+ * security filters, a controller, bcrypt and the database. Time is measured
+ * from launching the JVM; {@code ready} is the JVM's uptime when Spring Boot
+ * logs that it started.
+ */
+public class StartupTimeTest {
+
+	private static final Pattern STARTED = Pattern.compile(
+			"Started SareetaApplication in [0-9.]+ seconds \\(JVM running for ([0-9.]+)\\)");
+	private static final String MAIN_CLASS = "com.example.demo.SareetaApplication";
+	private static final long TIMEOUT_NANOS = Duration.ofMinutes(3).toNanos();
+
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+	private final Path target;
+	private final int port;
+	private int starts;
+
+	private StartupTimeTest(Path app, int port) {
+		this.target = app.toAbsolutePath().normalize().resolve("target");
+		this.port = port;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>();
+		for(String arg : args) {
+			String[] pair = arg.split("=", 2);
+			options.put(pair[0], pair[1]);
+		}
+		int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+		StartupTimeTest test = new StartupTimeTest(Paths.get(options.getOrDefault("app", "..")),
+				Integer.parseInt(options.getOrDefault("port", "18080")));
+		Path archive = test.target.resolve("app-cds.jsa");
+		if(!Files.isRegularFile(archive)) {
+			throw new IllegalStateException(archive + " is missing, run mvn -Pfast-start package first");
+		}
+
+		System.out.printf("%d runs each, %d cores, java %s%n", runs, Runtime.getRuntime().availableProcessors(),
+				System.getProperty("java.version"));
+		System.out.printf("%-22s %28s %28s%n", "", "first request ms", "ready ms");
+		System.out.printf("%-22s %9s %9s %9s %9s %9s %9s%n", "configuration",
+				"median", "min", "max", "median", "min", "max");
+		test.measure("default", runs);
+		test.measure("fast-start", runs, "-Dspring.profiles.active=fast-start");
+		test.measure("fast-start + AppCDS", runs, "-XX:SharedArchiveFile=" + archive,
+				"-Dspring.profiles.active=fast-start");
+		System.exit(0);
+	}
+
+	private void measure(String configuration, int runs, String... jvmOptions) throws Exception {
+		long[] firstRequest = new long[runs];
+		long[] ready = new long[runs];
+		for(int i = 0; i < runs; i++) {
+			long[] times = start(jvmOptions);
+			firstRequest[i] = times[0];
+			ready[i] = times[1];
+		}
+		Arrays.sort(firstRequest);
+		Arrays.sort(ready);
+		System.out.printf("%-22s %9d %9d %9d %9d %9d %9d%n", configuration,
+				firstRequest[runs / 2], firstRequest[0], firstRequest[runs - 1],
+				ready[runs / 2], ready[0], ready[runs - 1]);
+	}
+
+	/**
+	 * @return the milliseconds to the first answer and to ready
+	 */
+	private long[] start(String... jvmOptions) throws Exception {
+		int run = starts++;
+		Path directory = Files.createTempDirectory("startup-");
+		Path log = directory.resolve("app.log");
+
+		List<String> command = new ArrayList<>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(Arrays.asList(jvmOptions));
+		// the class path the archive was recorded with, see the fast-start Maven profile
+		command.add("-cp");
+		command.add(target.resolve("auth-course-0.0.1-SNAPSHOT-classes.jar") + ":" + target.resolve("dependency") + "/*");
+		command.add(MAIN_CLASS);
+		command.add("--server.port=" + port);
+		command.add("--management.server.port=" + (port + 1));
+		command.add("--reactive.server.port=" + (port + 2));
+		command.add("--orders.events.dir=" + directory.resolve("order-events"));
+
+		HttpRequest signUp = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/user/create"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"startup-" + run
+						+ "\",\"password\":\"password1\",\"confirmPassword\":\"password1\"}"))
+				.build();
+
+		long started = System.nanoTime();
+		Process process = new ProcessBuilder(command).directory(directory.toFile())
+				.redirectErrorStream(true).redirectOutput(log.toFile()).start();
+		try {
+			long answered = 0;
+			while (answered == 0) {
+				if(!process.isAlive() || System.nanoTime() - started > TIMEOUT_NANOS) {
+					throw new IllegalStateException("The application didn't answer, see " + log);
+				}
+				try {
+					HttpResponse<Void> response = client.send(signUp, HttpResponse.BodyHandlers.discarding());
+					if(response.statusCode() != 200) {
+						throw new IllegalStateException("Sign up failed with status " + response.statusCode()
+								+ ", see " + log);
+					}
+					answered = System.nanoTime();
+				} catch (ConnectException e) {
+					Thread.sleep(5);
+				}
+			}
+			// tomcat takes requests before the ready listeners have run, and the log is written asynchronously
+			long ready = -1;
+			while (ready < 0 && System.nanoTime() - started < TIMEOUT_NANOS) {
+				Matcher matcher = STARTED.matcher(new String(Files.readAllBytes(log)));
+				if(matcher.find()) {
+					ready = Math.round(Double.parseDouble(matcher.group(1)) * 1000);
+				} else {
+					Thread.sleep(50);
+				}
+			}
+			return new long[] {Duration.ofNanos(answered - started).toMillis(), ready};
+		} finally {
+			process.destroy();
+			process.waitFor();
+			delete(directory);
+		}
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for(Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.example.demo;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Startup settings of the {@code fast-start} profile, see
+ * application-fast-start.properties.
+ *
+ * {@code spring.main.lazy-initialization=true} creates beans on first use,
+ * as it does from Spring Boot 2.2 on; this version of Boot ignores the
+ * property, so it is applied here. Infrastructure beans, beans marked
+ * {@code @Lazy(false)}, {@link SmartInitializingSingleton}s such as the
+ * service metrics and beans with {@code @Scheduled} methods are still
+ * created with the context, because Spring only calls back or schedules
+ * beans that exist by then. Event listeners and the web servers start with
+ * the context too; controllers and the services behind them on the first
+ * request that needs them.
+ *
+ * {@code startup.exit-when-ready=true} stops the application as soon as it
+ * is ready, for the training run that records the class data sharing
+ * archive, see the {@code fast-start} Maven profile.
+ */
+@Configuration
+public class FastStartConfiguration {
+
+	@Value("${startup.exit-when-ready:false}")
+	private boolean exitWhenReady;
+
+	@Bean
+	@ConditionalOnProperty(name = "spring.main.lazy-initialization", havingValue = "true")
+	public static BeanFactoryPostProcessor lazyInitialization() {
+		return beanFactory -> {
+			for(String name : beanFactory.getBeanDefinitionNames()) {
+				BeanDefinition definition = beanFactory.getBeanDefinition(name);
+				if(!isEager(definition, beanType(definition, beanFactory.getBeanClassLoader()))) {
+					definition.setLazyInit(true);
+				}
+			}
+		};
+	}
+
+	static boolean isEager(BeanDefinition definition, Class<?> type) {
+		if(definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) {
+			return true;
+		}
+		AnnotatedTypeMetadata metadata = null;
+		if(definition instanceof AnnotatedBeanDefinition) {
+			AnnotatedBeanDefinition annotated = (AnnotatedBeanDefinition) definition;
+			metadata = annotated.getFactoryMethodMetadata() != null
+					? annotated.getFactoryMethodMetadata() : annotated.getMetadata();
+		}
+		Map<String, Object> lazy = metadata == null ? null : metadata.getAnnotationAttributes(Lazy.class.getName());
+		if(lazy != null && Boolean.FALSE.equals(lazy.get("value"))) {
+			return true;
+		}
+		if(type == null) {
+			return false;
+		}
+		if(SmartInitializingSingleton.class.isAssignableFrom(type)) {
+			return true;
+		}
+		for(Method method : ReflectionUtils.getUniqueDeclaredMethods(type)) {
+			if(AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+					|| AnnotatedElementUtils.hasAnnotation(method, Schedules.class)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// from the definition alone, resolving the type through the factory could create the bean
+	private static Class<?> beanType(BeanDefinition definition, ClassLoader classLoader) {
+		String typeName = definition.getBeanClassName();
+		if(definition instanceof AnnotatedBeanDefinition
+				&& ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata() != null) {
+			typeName = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata().getReturnTypeName();
+		}
+		if(typeName == null) {
+			return null;
+		}
+		try {
+			return ClassUtils.forName(typeName, classLoader);
+		} catch (ClassNotFoundException | LinkageError e) {
+			return null;
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onReady(ApplicationReadyEvent event) {
+		if(exitWhenReady) {
+			System.exit(SpringApplication.exit(event.getApplicationContext()));
+		}
+	}
+}
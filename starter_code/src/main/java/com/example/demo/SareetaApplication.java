@@ -1,20 +1,56 @@
 package com.example.demo;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.Resource;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import com.example.demo.events.OrderEventLog;
+import com.example.demo.security.BoundedBCryptPasswordEncoder;
+
 @EnableJpaRepositories("com.example.demo.model.persistence.repositories")
 @EntityScan("com.example.demo.model.persistence")
 @SpringBootApplication(exclude = {SecurityAutoConfiguration.class})
+@EnableScheduling
 public class SareetaApplication {
 	@Bean
-	public BCryptPasswordEncoder bCryptPasswordEncoder(){
-		return new BCryptPasswordEncoder();
+	public BCryptPasswordEncoder bCryptPasswordEncoder(
+			@Value("${security.bcrypt.strength:10}") int strength,
+			@Value("${security.bcrypt.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+			@Value("${security.bcrypt.queue-capacity:64}") int queueCapacity,
+			@Value("${security.bcrypt.timeout-millis:5000}") long timeoutMillis){
+		return new BoundedBCryptPasswordEncoder(strength, threads, queueCapacity, timeoutMillis);
+	}
+
+	// hibernate passes the uri to ehcache as is, which can't open classpath: urls
+	@Bean
+	public HibernatePropertiesCustomizer secondLevelCacheConfig(
+			@Value("${persistence.cache.config:classpath:ehcache.xml}") Resource config) throws IOException {
+		URI uri = config.getURI();
+		return properties -> properties.put(ConfigSettings.CONFIG_URI, uri.toString());
+	}
+
+	@Bean
+	public OrderEventLog orderEventLog(
+			@Value("${orders.events.dir:order-events}") String directory,
+			@Value("${orders.events.segment-records:1048576}") int segmentRecords,
+			@Value("${orders.events.fsync:never}") String fsync,
+			@Value("${orders.events.fsync-interval-millis:1000}") long fsyncIntervalMillis) throws IOException {
+		return new OrderEventLog(Paths.get(directory), segmentRecords,
+				OrderEventLog.Fsync.valueOf(fsync.toUpperCase(Locale.ROOT)), fsyncIntervalMillis);
 	}
 
 	public static void main(String[] args) {
@@ -0,0 +1,59 @@
+package com.example.demo;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs every request, and with it the repository calls it makes, on its own
+ * virtual thread instead of Tomcat's worker pool. Enabled with
+ * {@code server.tomcat.virtual-threads=true}, or the {@code virtual-threads}
+ * Maven profile, and needs a Java 21 runtime. The property is the project's
+ * own; Spring Boot 3.2 and later bring their own virtual thread support under
+ * {@code spring.threads.virtual.enabled}, which would replace this class.
+ *
+ * The classes are still compiled for Java 9, Spring 5.1 can't read newer
+ * class files while scanning, so the executor is looked up reflectively and
+ * startup fails on an older runtime.
+ */
+@Configuration
+@ConditionalOnProperty(name = "server.tomcat.virtual-threads", havingValue = "true")
+public class VirtualThreadsConfiguration implements DisposableBean {
+
+	private final ExecutorService executor = newVirtualThreadPerTaskExecutor("http-vt-");
+
+	@Bean
+	public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadRequestExecutor() {
+		return factory -> factory.addConnectorCustomizers(
+				connector -> connector.getProtocolHandler().setExecutor(executor));
+	}
+
+	// tomcat leaves executors it didn't create running
+	@Override
+	public void destroy() {
+		executor.shutdown();
+	}
+
+	static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+		try {
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+			ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+			return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+					.invoke(null, threadFactory);
+		} catch (ClassNotFoundException | NoSuchMethodException e) {
+			throw new IllegalStateException("server.tomcat.virtual-threads needs Java 21 or later, this is "
+					+ System.getProperty("java.version"), e);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Couldn't create the virtual thread executor", e);
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package com.example.demo.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Small in-process cache bounded by entry count, with a time to live per
+ * entry and hit/miss/eviction counters. Loaders run outside any lock, so two
+ * callers missing the same key at once may both load it.
+ *
+ * Reads take no lock: entries live in a {@link ConcurrentHashMap} and a hit
+ * only sets the entry's reference bit. Eviction approximates LRU with the
+ * CLOCK algorithm: once a write takes the cache over its size, a hand sweeps
+ * the entries, sparing and clearing those read since it last passed and
+ * evicting the first one that wasn't. Only writes that overflow the cache
+ * take the lock that guards the hand.
+ */
+public class BoundedCache<K, V> {
+
+	private final int maxSize;
+	private final long ttlMillis;
+	private final LongSupplier clock;
+
+	private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+	// a lock rather than a monitor, so a virtual thread waiting for it doesn't pin its carrier
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	private Iterator<Map.Entry<K, Entry<V>>> hand;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public BoundedCache(int maxSize, long ttlMillis) {
+		this(maxSize, ttlMillis, System::currentTimeMillis);
+	}
+
+	BoundedCache(int maxSize, long ttlMillis, LongSupplier clock) {
+		if(maxSize <= 0 || ttlMillis <= 0) {
+			throw new IllegalArgumentException("Cache size and time to live must be positive");
+		}
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+		this.clock = clock;
+	}
+
+	public V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if(entry != null && entry.expiresAt > clock.getAsLong()) {
+			entry.touch();
+			hits.increment();
+			return entry.value;
+		}
+		if(entry != null && entries.remove(key, entry)) {
+			evictions.increment();
+		}
+		misses.increment();
+		return null;
+	}
+
+	public V get(K key, Function<? super K, ? extends V> loader) {
+		V value = get(key);
+		if(value == null) {
+			value = loader.apply(key);
+			if(value != null) {
+				put(key, value);
+			}
+		}
+		return value;
+	}
+
+	public void put(K key, V value) {
+		put(key, value, clock.getAsLong() + ttlMillis);
+	}
+
+	public void put(K key, V value, long expiresAt) {
+		entries.put(key, new Entry<>(value, Math.min(expiresAt, clock.getAsLong() + ttlMillis)));
+		evictIfFull(key);
+	}
+
+	/**
+	 * Stores {@code value} unless a live entry exists, in which case that
+	 * entry's value is returned and the cache is left unchanged.
+	 */
+	public V putIfAbsent(K key, V value) {
+		long now = clock.getAsLong();
+		Entry<V> created = new Entry<>(value, now + ttlMillis);
+		Entry<V> current = entries.compute(key,
+				(k, existing) -> existing != null && existing.expiresAt > now ? existing : created);
+		if(current != created) {
+			current.touch();
+			hits.increment();
+			return current.value;
+		}
+		misses.increment();
+		evictIfFull(key);
+		return null;
+	}
+
+	public void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	public void invalidateAll() {
+		entries.clear();
+	}
+
+	public void removeExpired() {
+		long now = clock.getAsLong();
+		for(Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+			if(entry.getValue().expiresAt <= now && entries.remove(entry.getKey(), entry.getValue())) {
+				evictions.increment();
+			}
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	private void evictIfFull(K added) {
+		if(entries.size() <= maxSize) {
+			return;
+		}
+		evictionLock.lock();
+		try {
+			long now = clock.getAsLong();
+			// two sweeps clear every reference bit, after that entries go whether read or not
+			int spared = 0;
+			while (entries.size() > maxSize) {
+				if(hand == null || !hand.hasNext()) {
+					hand = entries.entrySet().iterator();
+					if(!hand.hasNext()) {
+						return;
+					}
+				}
+				Map.Entry<K, Entry<V>> candidate = hand.next();
+				Entry<V> entry = candidate.getValue();
+				if(candidate.getKey().equals(added)) {
+					continue;
+				}
+				if(entry.expiresAt > now && entry.referenced && spared++ < 2 * maxSize) {
+					entry.referenced = false;
+					continue;
+				}
+				if(entries.remove(candidate.getKey(), entry)) {
+					evictions.increment();
+				}
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private static final class Entry<V> {
+		private final V value;
+		private final long expiresAt;
+		private volatile boolean referenced;
+
+		private Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		private void touch() {
+			// read first, so hits on a hot entry don't keep writing its cache line
+			if(!referenced) {
+				referenced = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package com.example.demo.collections;
+
+import java.util.Arrays;
+
+/**
+ * Map from {@code long} to {@code long} with open addressing and linear
+ * probing over two parallel arrays, so neither keys nor values are boxed and
+ * a lookup touches one or two cache lines. Absent keys read as 0. Not
+ * thread-safe.
+ */
+public final class LongLongHashMap {
+
+	public interface Consumer {
+		void accept(long key, long value);
+	}
+
+	private static final long FREE = 0L;
+	private static final float LOAD_FACTOR = 0.5f;
+
+	// FREE marks an empty slot, so the key 0 lives outside the table
+	private long[] keys;
+	private long[] values;
+	private int mask;
+	private int size;
+	private boolean hasZeroKey;
+	private long zeroValue;
+
+	public LongLongHashMap() {
+		this(16);
+	}
+
+	public LongLongHashMap(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	public long get(long key) {
+		if(key == FREE) {
+			return hasZeroKey ? zeroValue : 0L;
+		}
+		int slot = slot(key);
+		return keys[slot] == key ? values[slot] : 0L;
+	}
+
+	public boolean containsKey(long key) {
+		return key == FREE ? hasZeroKey : keys[slot(key)] == key;
+	}
+
+	public void put(long key, long value) {
+		if(key == FREE) {
+			if(!hasZeroKey) {
+				hasZeroKey = true;
+				size++;
+			}
+			zeroValue = value;
+			return;
+		}
+		int slot = slot(key);
+		if(keys[slot] == key) {
+			values[slot] = value;
+			return;
+		}
+		insert(slot, key, value);
+	}
+
+	/**
+	 * Adds {@code delta} to the value of {@code key}, starting from 0.
+	 *
+	 * @return the new value
+	 */
+	public long addTo(long key, long delta) {
+		if(key == FREE) {
+			if(!hasZeroKey) {
+				hasZeroKey = true;
+				size++;
+			}
+			return zeroValue += delta;
+		}
+		int slot = slot(key);
+		if(keys[slot] == key) {
+			return values[slot] += delta;
+		}
+		insert(slot, key, delta);
+		return delta;
+	}
+
+	/**
+	 * @return the value {@code key} had, 0 if it had none
+	 */
+	public long remove(long key) {
+		if(key == FREE) {
+			long value = hasZeroKey ? zeroValue : 0L;
+			if(hasZeroKey) {
+				hasZeroKey = false;
+				zeroValue = 0L;
+				size--;
+			}
+			return value;
+		}
+		int slot = slot(key);
+		if(keys[slot] != key) {
+			return 0L;
+		}
+		long value = values[slot];
+		shiftBack(slot);
+		size--;
+		return value;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, FREE);
+		Arrays.fill(values, 0L);
+		hasZeroKey = false;
+		zeroValue = 0L;
+		size = 0;
+	}
+
+	public void forEach(Consumer consumer) {
+		if(hasZeroKey) {
+			consumer.accept(FREE, zeroValue);
+		}
+		for(int i = 0; i < keys.length; i++) {
+			if(keys[i] != FREE) {
+				consumer.accept(keys[i], values[i]);
+			}
+		}
+	}
+
+	/**
+	 * The slot holding {@code key}, or the free slot where it would go.
+	 */
+	private int slot(long key) {
+		int slot = mix(key) & mask;
+		while (keys[slot] != FREE && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void insert(int slot, long key, long value) {
+		keys[slot] = key;
+		values[slot] = value;
+		if(++size > keys.length * LOAD_FACTOR) {
+			rehash(keys.length * 2);
+		}
+	}
+
+	/**
+	 * Empties {@code slot} and moves later entries of the same probe run
+	 * back into the gap, so lookups never need tombstones.
+	 */
+	private void shiftBack(int slot) {
+		int gap = slot;
+		int next = (gap + 1) & mask;
+		while (keys[next] != FREE) {
+			int home = mix(keys[next]) & mask;
+			// move the entry unless its home lies cyclically in (gap, next]
+			if(((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				values[gap] = values[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[gap] = FREE;
+		values[gap] = 0L;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate(capacity);
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] != FREE) {
+				int slot = slot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	private static int capacityFor(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(8, (int) Math.ceil(expectedSize / LOAD_FACTOR)) - 1) << 1;
+		if(capacity <= 0) {
+			throw new IllegalArgumentException("Can't hold " + expectedSize + " entries");
+		}
+		return capacity;
+	}
+
+	// ids are often sequential, spread them over the table (murmur3's finalizer)
+	private static int mix(long key) {
+		long h = key;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+}
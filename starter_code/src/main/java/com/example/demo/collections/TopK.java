@@ -0,0 +1,208 @@
+package com.example.demo.collections;
+
+import java.util.Arrays;
+
+/**
+ * The {@code capacity} keys with the largest counts, kept sorted largest
+ * first so reading them is a copy. Counts may grow and shrink: every other
+ * key waits in an indexed max-heap, so when a top key shrinks below the best
+ * of the rest the two trade places. Changing a key's count costs O(log n)
+ * for a key outside the top and at most O(K) for one inside it, however
+ * many keys there are.
+ */
+public final class TopK {
+
+	private final long[] keys;
+	private final long[] counts;
+	private int size;
+
+	private long[] restKeys = new long[16];
+	private long[] restCounts = new long[16];
+	private int restSize;
+
+	// key -> -(index + 1) in the top, or heap index + 1 in the rest
+	private final LongLongHashMap positions = new LongLongHashMap();
+
+	public TopK(int capacity) {
+		if(capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be at least 1, not " + capacity);
+		}
+		keys = new long[capacity];
+		counts = new long[capacity];
+	}
+
+	/**
+	 * Sets the count of {@code key}, higher or lower than before. A count of
+	 * 0 or less removes it.
+	 */
+	public void offer(long key, long count) {
+		if(count <= 0) {
+			remove(key);
+			return;
+		}
+		long position = positions.get(key);
+		if(position < 0) {
+			int index = (int) -position - 1;
+			counts[index] = count;
+			reposition(index);
+		} else if(position > 0) {
+			int index = (int) position - 1;
+			long previous = restCounts[index];
+			restCounts[index] = count;
+			if(count > previous) {
+				siftUp(index);
+			} else {
+				siftDown(index);
+			}
+		} else if(size < keys.length) {
+			// the rest is empty until the top is full
+			place(size++, key, count);
+			reposition(size - 1);
+			return;
+		} else {
+			push(key, count);
+		}
+		promote();
+	}
+
+	public void remove(long key) {
+		long position = positions.remove(key);
+		if(position < 0) {
+			int index = (int) -position - 1;
+			for(int i = index; i < size - 1; i++) {
+				place(i, keys[i + 1], counts[i + 1]);
+			}
+			size--;
+			if(restSize > 0) {
+				long best = restKeys[0];
+				long bestCount = restCounts[0];
+				removeAt(0);
+				place(size++, best, bestCount);
+			}
+		} else if(position > 0) {
+			removeAt((int) position - 1);
+		}
+	}
+
+	/**
+	 * Copies up to {@code limit} entries, largest count first.
+	 *
+	 * @return how many were copied
+	 */
+	public int copyTo(long[] keys, long[] counts, int limit) {
+		int copied = Math.min(limit, size);
+		System.arraycopy(this.keys, 0, keys, 0, copied);
+		System.arraycopy(this.counts, 0, counts, 0, copied);
+		return copied;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return keys.length;
+	}
+
+	public void clear() {
+		size = 0;
+		restSize = 0;
+		positions.clear();
+	}
+
+	/**
+	 * Swaps the smallest of the top with the best of the rest while the
+	 * rest has the larger count.
+	 */
+	private void promote() {
+		while (restSize > 0 && restCounts[0] > counts[size - 1]) {
+			long key = restKeys[0];
+			long count = restCounts[0];
+			removeAt(0);
+			push(keys[size - 1], counts[size - 1]);
+			place(size - 1, key, count);
+			reposition(size - 1);
+		}
+	}
+
+	private void reposition(int index) {
+		long key = keys[index];
+		long count = counts[index];
+		for(; index > 0 && counts[index - 1] < count; index--) {
+			place(index, keys[index - 1], counts[index - 1]);
+		}
+		for(; index < size - 1 && counts[index + 1] > count; index++) {
+			place(index, keys[index + 1], counts[index + 1]);
+		}
+		place(index, key, count);
+	}
+
+	private void place(int index, long key, long count) {
+		keys[index] = key;
+		counts[index] = count;
+		positions.put(key, -(index + 1));
+	}
+
+	private void push(long key, long count) {
+		if(restSize == restKeys.length) {
+			restKeys = Arrays.copyOf(restKeys, restSize * 2);
+			restCounts = Arrays.copyOf(restCounts, restSize * 2);
+		}
+		placeRest(restSize++, key, count);
+		siftUp(restSize - 1);
+	}
+
+	private void removeAt(int index) {
+		positions.remove(restKeys[index]);
+		restSize--;
+		if(index < restSize) {
+			long previous = restCounts[index];
+			placeRest(index, restKeys[restSize], restCounts[restSize]);
+			if(restCounts[index] > previous) {
+				siftUp(index);
+			} else {
+				siftDown(index);
+			}
+		}
+	}
+
+	private void siftUp(int index) {
+		long key = restKeys[index];
+		long count = restCounts[index];
+		while (index > 0) {
+			int parent = (index - 1) / 2;
+			if(restCounts[parent] >= count) {
+				break;
+			}
+			placeRest(index, restKeys[parent], restCounts[parent]);
+			index = parent;
+		}
+		placeRest(index, key, count);
+	}
+
+	private void siftDown(int index) {
+		long key = restKeys[index];
+		long count = restCounts[index];
+		while (true) {
+			int child = 2 * index + 1;
+			if(child >= restSize) {
+				break;
+			}
+			if(child + 1 < restSize && restCounts[child + 1] > restCounts[child]) {
+				child++;
+			}
+			if(restCounts[child] <= count) {
+				break;
+			}
+			placeRest(index, restKeys[child], restCounts[child]);
+			index = child;
+		}
+		placeRest(index, key, count);
+	}
+
+	private void placeRest(int index, long key, long count) {
+		restKeys[index] = key;
+		restCounts[index] = count;
+		positions.put(key, index + 1);
+	}
+}
@@ -0,0 +1,35 @@
+package com.example.demo.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.model.responses.SalesResponse;
+import com.example.demo.services.OrderAnalytics;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController extends BaseController{
+
+	@Autowired
+	private OrderAnalytics orderAnalytics;
+
+	@GetMapping("/sales")
+	public ResponseEntity<SalesResponse> getSales(@RequestParam(defaultValue = "10") int top) {
+
+		if(top <= 0 || top > orderAnalytics.getMaxTopSellers()) {
+
+			logger.warn("Top sellers {} is outside 1..{}", top, orderAnalytics.getMaxTopSellers());
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+		}
+
+		SalesResponse sales = orderAnalytics.getSales(top);
+
+		logger.info("Read the sales of {} orders since {}", sales.getOrders(), sales.getSince());
+		return ResponseEntity.ok(sales);
+	}
+}
@@ -1,95 +1,117 @@
 package com.example.demo.controllers;
 
-import java.util.Optional;
-import java.util.stream.IntStream;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.example.demo.model.persistence.Cart;
-import com.example.demo.model.persistence.Item;
-import com.example.demo.model.persistence.User;
-import com.example.demo.model.persistence.repositories.CartRepository;
-import com.example.demo.model.persistence.repositories.ItemRepository;
-import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.BulkModifyCartRequest;
+import com.example.demo.model.requests.CartOperation;
 import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.model.responses.CartResponse;
+import com.example.demo.services.CartEngine;
 
 
+@RestController
 @RequestMapping("/api/cart")
 public class CartController extends BaseController{
 
+	static final int MAX_OPERATIONS = 500;
+
 	@Autowired
-	private UserRepository userRepository;
-	
-	@Autowired
-	private CartRepository cartRepository;
-	
-	@Autowired
-	private ItemRepository itemRepository;
+	private CartEngine cartEngine;
 	
 	@PostMapping("/addToCart")
-	public ResponseEntity<Cart> addToCart(@RequestBody ModifyCartRequest request) {
-
-		User user = userRepository.findByUsername(request.getUsername());
+	public ResponseEntity<CartResponse> addToCart(@RequestBody ModifyCartRequest request) {
 
-		if(user == null) {
+		if(request.getQuantity() <= 0) {
 
-			logger.warn("User {} couldn't be found", request.getUsername());
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			logger.warn("Invalid quantity {} for item {}", request.getQuantity(), request.getItemId());
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
 		}
 
-		Optional<Item> item = itemRepository.findById(request.getItemId());
-
-		if(!item.isPresent()) {
+		Cart cart;
+		try {
+			cart = cartEngine.addToCart(request.getUsername(), request.getItemId(), request.getQuantity());
+		} catch (OptimisticLockingFailureException e) {
+			logger.warn("Cart of {} is changing too fast to add item {}", request.getUsername(), request.getItemId());
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
 
-			logger.warn("Item {} couldn't be found", request.getItemId());
+		if(cart == null) {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 		}
-		Cart cart = user.getCart();
-
-		IntStream.range(0, request.getQuantity())
-			.forEach(i -> cart.addItem(item.get()));
-
-		cartRepository.save(cart);
 
 		logger.info("Item {}, with quantity {} to was added to {} 's cart",
-				request.getItemId(), request.getQuantity(), user.getUsername());
+				request.getItemId(), request.getQuantity(), request.getUsername());
 
-		return ResponseEntity.ok(cart);
+		return ResponseEntity.ok(CartResponse.createFrom(cart));
 	}
 	
 	@PostMapping("/removeFromCart")
-	public ResponseEntity<Cart> removeFromCart(@RequestBody ModifyCartRequest request) {
+	public ResponseEntity<CartResponse> removeFromCart(@RequestBody ModifyCartRequest request) {
+
+		if(request.getQuantity() <= 0) {
 
-		User user = userRepository.findByUsername(request.getUsername());
+			logger.warn("Invalid quantity {} for item {}", request.getQuantity(), request.getItemId());
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+		}
 
-		if(user == null) {
+		Cart cart;
+		try {
+			cart = cartEngine.removeFromCart(request.getUsername(), request.getItemId(), request.getQuantity());
+		} catch (OptimisticLockingFailureException e) {
+			logger.warn("Cart of {} is changing too fast to remove item {}", request.getUsername(), request.getItemId());
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
 
-			logger.warn("User {} couldn't be found", request.getUsername());
+		if(cart == null) {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 		}
 
-		Optional<Item> item = itemRepository.findById(request.getItemId());
+		logger.info("Item {}, with quantity {} was removed from {} 's cart",
+				request.getItemId(), request.getQuantity(), request.getUsername());
 
-		if(!item.isPresent()) {
+		return ResponseEntity.ok(CartResponse.createFrom(cart));
+	}
 
-			logger.warn("Item {} couldn't be found", request.getItemId());
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+	@PostMapping("/bulk")
+	public ResponseEntity<CartResponse> modifyCart(@RequestBody BulkModifyCartRequest request) {
+
+		List<CartOperation> operations = request.getOperations();
+
+		if(operations == null || operations.isEmpty() || operations.size() > MAX_OPERATIONS) {
+
+			logger.warn("Bulk change of {} 's cart should have 1..{} operations", request.getUsername(), MAX_OPERATIONS);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
 		}
 
-		Cart cart = user.getCart();
+		for(CartOperation operation : operations) {
+			if(operation == null || operation.getAction() == null || operation.getQuantity() <= 0) {
 
-		IntStream.range(0, request.getQuantity())
-			.forEach(i -> cart.removeItem(item.get()));
+				logger.warn("Invalid operation in the bulk change of {} 's cart", request.getUsername());
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+			}
+		}
 
-		cartRepository.save(cart);
+		Cart cart;
+		try {
+			cart = cartEngine.modifyCart(request.getUsername(), operations);
+		} catch (OptimisticLockingFailureException e) {
+			logger.warn("Cart of {} is changing too fast for a bulk change", request.getUsername());
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
 
-		logger.info("Item {}, with quantity {} was removed from {} 's cart",
-				request.getItemId(), request.getQuantity(), user.getUsername());
+		if(cart == null) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+		}
+
+		logger.info("{} operations were applied to {} 's cart", operations.size(), request.getUsername());
 
-		return ResponseEntity.ok(cart);
+		return ResponseEntity.ok(CartResponse.createFrom(cart));
 	}
-		
 }
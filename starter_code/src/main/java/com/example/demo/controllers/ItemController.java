@@ -1,27 +1,50 @@
 package com.example.demo.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.model.persistence.Item;
-import com.example.demo.model.persistence.repositories.ItemRepository;
-
+import com.example.demo.services.ItemCatalog;
+import com.example.demo.services.ItemSearchIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+@RestController
 @RequestMapping("/api/item")
 public class ItemController extends BaseController{
 
+	static final int MAX_PAGE_SIZE = 500;
+
+	static final String NDJSON = "application/x-ndjson";
+
 	@Autowired
-	private ItemRepository itemRepository;
+	private ItemCatalog itemCatalog;
+
+	@Autowired
+	private ItemSearchIndex itemSearchIndex;
+
+	@Autowired
+	private ObjectMapper objectMapper;
 	
 	@GetMapping
 	public ResponseEntity<List<Item>> getItems() {
 
-		List<Item> items = itemRepository.findAll();
+		List<Item> items = itemCatalog.findAll();
 
 		if(items.isEmpty()){
 
@@ -33,9 +56,70 @@ public class ItemController extends BaseController{
 		return ResponseEntity.ok(items);
 	}
 	
+	@GetMapping(params = "limit")
+	public ResponseEntity<List<Item>> getItemsPage(@RequestParam(defaultValue = "0") long afterId,
+												   @RequestParam int limit) {
+
+		if(limit <= 0 || limit > MAX_PAGE_SIZE) {
+
+			logger.warn("Page size {} is outside 1..{}", limit, MAX_PAGE_SIZE);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+		}
+
+		List<Item> items = itemCatalog.findPage(afterId, limit);
+
+		logger.info("Found {} items after id {}", items.size(), afterId);
+		return ResponseEntity.ok(items);
+	}
+
+	@GetMapping(value = "/stream", produces = NDJSON)
+	public void streamItems(HttpServletResponse response) throws IOException {
+
+		response.setContentType(NDJSON);
+
+		ObjectWriter writer = objectMapper.writerFor(Item.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+			generator.setRootValueSeparator(null);
+			itemCatalog.forEachItem(item -> {
+				try {
+					writer.writeValue(generator, item);
+					generator.writeRaw('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+
+		logger.info("Streamed the item catalog");
+	}
+
+	@GetMapping("/search")
+	public ResponseEntity<List<Item>> searchItems(@RequestParam("q") String query,
+												  @RequestParam(defaultValue = "20") int limit) {
+
+		if(limit <= 0 || limit > MAX_PAGE_SIZE) {
+
+			logger.warn("Search limit {} is outside 1..{}", limit, MAX_PAGE_SIZE);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+		}
+
+		List<Item> items = itemSearchIndex.search(query, limit);
+
+		if(items.isEmpty()){
+
+			logger.warn("No item matched the search {}", query);
+			return ResponseEntity.notFound().build();
+		}
+
+		logger.info("Found {} items matching the search {}", items.size(), query);
+		return ResponseEntity.ok(items);
+	}
+
 	@GetMapping("/{id}")
 	public ResponseEntity<Item> getItemById(@PathVariable Long id) {
-		Optional<Item> item = itemRepository.findById(id);
+		Optional<Item> item = itemCatalog.findById(id);
 
 		if(!item.isPresent()){
 
@@ -50,7 +134,7 @@ public class ItemController extends BaseController{
 	@GetMapping("/name/{name}")
 	public ResponseEntity<List<Item>> getItemsByName(@PathVariable String name) {
 
-		List<Item> items = itemRepository.findByName(name);
+		List<Item> items = itemCatalog.findByName(name);
 
 		if(items == null || items.isEmpty() ){
 
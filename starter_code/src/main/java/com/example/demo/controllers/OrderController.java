@@ -1,33 +1,70 @@
 package com.example.demo.controllers;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.events.OrderEventLog;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
 import com.example.demo.model.persistence.repositories.OrderRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.ImportOrderRequest;
+import com.example.demo.model.responses.OrderResponse;
+import com.example.demo.model.responses.OrderSummary;
+import com.example.demo.services.CartEngine;
+import com.example.demo.services.OrderAnalytics;
+import com.example.demo.services.OrderService;
+import com.example.demo.services.OrderSubmissionQueue;
 
+@RestController
 @RequestMapping("/api/order")
 public class OrderController extends BaseController{
 
+	static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+	static final int MAX_PAGE_SIZE = 500;
+
 	@Autowired
 	private UserRepository userRepository;
 	
 	@Autowired
 	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderSubmissionQueue orderSubmissionQueue;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private CartEngine cartEngine;
+
+	@Autowired
+	private OrderEventLog orderEventLog;
+
+	@Autowired
+	private OrderAnalytics orderAnalytics;
 	
 	
 	@PostMapping("/submit/{username}")
-	public ResponseEntity<UserOrder> submit(@PathVariable String username) {
+	public ResponseEntity<OrderResponse> submit(@PathVariable String username) {
 
+		cartEngine.flush(username);
 		User user = userRepository.findByUsername(username);
 		if(user == null) {
 
@@ -37,14 +74,100 @@ public class OrderController extends BaseController{
 
 		UserOrder order = UserOrder.createFromCart(user.getCart());
 		orderRepository.save(order);
+		try {
+			orderEventLog.append(order);
+		} catch (IOException | RuntimeException e) {
+			// the order is persisted, failing the submit now would only invite a duplicate
+			logger.error("Order {} couldn't be written to the order event log, it is appended on the next start",
+					order.getReference(), e);
+		}
+		orderAnalytics.record(order);
 
 		logger.info("An order of {} has been submitted", username);
 
-		return ResponseEntity.ok(order);
+		return ResponseEntity.ok(OrderResponse.createFrom(order));
+	}
+
+	@PostMapping("/submitAsync/{username}")
+	public ResponseEntity<OrderResponse> submitAsync(@PathVariable String username,
+			@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+
+		// keys are only unique per client, so scope them to the user
+		String key = idempotencyKey == null ? null : username + ":" + idempotencyKey;
+
+		UserOrder accepted = orderSubmissionQueue.findAccepted(key);
+		if(accepted != null) {
+			logger.info("Order {} of {} has already been accepted", accepted.getReference(), username);
+			return accepted(accepted);
+		}
+
+		cartEngine.flush(username);
+		User user = userRepository.findByUsername(username);
+		if(user == null) {
+
+			logger.warn("User {} couldn't be found", username);
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+		}
+
+		UserOrder order = UserOrder.createFromCart(user.getCart());
+		// counted in the sales analytics once it is persisted
+		accepted = orderSubmissionQueue.submit(order, key);
+		if(accepted == null) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+		}
+
+		logger.info("Order {} of {} has been queued", accepted.getReference(), username);
+
+		return accepted(accepted);
+	}
+
+	@PostMapping("/import")
+	public ResponseEntity<List<String>> importOrders(@RequestBody List<ImportOrderRequest> requests) {
+
+		for(ImportOrderRequest request : requests) {
+			if(request.getItems() == null || request.getItems().isEmpty()
+					|| request.getItems().values().stream().anyMatch(quantity -> quantity == null || quantity <= 0)) {
+
+				logger.warn("Invalid items {} in the order of {}", request.getItems(), request.getUsername());
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+			}
+		}
+
+		List<UserOrder> orders = orderService.importOrders(requests);
+
+		if(orders == null) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+		}
+
+		logger.info("{} orders have been imported", orders.size());
+
+		return ResponseEntity.ok(orders.stream().map(UserOrder::getReference).collect(Collectors.toList()));
+	}
+
+	@GetMapping("/reference/{reference}")
+	public ResponseEntity<OrderResponse> getOrderByReference(@PathVariable String reference) {
+
+		UserOrder order = orderRepository.findByReference(reference);
+
+		if(order != null) {
+			return ResponseEntity.ok(OrderResponse.createFrom(order));
+		}
+
+		if(orderSubmissionQueue.isPending(reference)) {
+			return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+		}
+
+		if(orderSubmissionQueue.isFailed(reference)) {
+			logger.warn("Order {} was accepted but couldn't be persisted", reference);
+			return ResponseEntity.status(HttpStatus.GONE).build();
+		}
+
+		logger.warn("Order {} couldn't be found", reference);
+		return ResponseEntity.notFound().build();
 	}
 	
 	@GetMapping("/history/{username}")
-	public ResponseEntity<List<UserOrder>> getOrdersForUser(@PathVariable String username) {
+	public ResponseEntity<List<OrderResponse>> getOrdersForUser(@PathVariable String username) {
 
 		User user = userRepository.findByUsername(username);
 
@@ -53,7 +176,7 @@ public class OrderController extends BaseController{
 			return ResponseEntity.notFound().build();
 		}
 
-		List<UserOrder> userOrders = orderRepository.findByUser(user);
+		List<OrderResponse> userOrders = orderService.findHistory(user.getId());
 
 		if(userOrders.isEmpty()){
 			logger.warn("User {} doesn't have orders yet", user.getUsername());
@@ -63,4 +186,46 @@ public class OrderController extends BaseController{
 		logger.info("A list of orders for username: {} were found", user.getUsername());
 		return ResponseEntity.ok(userOrders);
 	}
+
+	@GetMapping(value = "/history/{username}", params = "limit")
+	public ResponseEntity<List<OrderSummary>> getOrderHistoryPage(@PathVariable String username,
+			@RequestParam(defaultValue = "" + Long.MAX_VALUE) long beforeId, @RequestParam int limit) {
+
+		if(limit <= 0 || limit > MAX_PAGE_SIZE) {
+
+			logger.warn("Page size {} is outside 1..{}", limit, MAX_PAGE_SIZE);
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+		}
+
+		User user = userRepository.findByUsername(username);
+
+		if(user == null) {
+			logger.warn("User {} couldn't be found", username);
+			return ResponseEntity.notFound().build();
+		}
+
+		List<OrderSummary> orders = orderRepository.findSummariesByUser(user.getId(), beforeId, PageRequest.of(0, limit));
+
+		logger.info("Found {} orders of {} before id {}", orders.size(), username, beforeId);
+		return ResponseEntity.ok(orders);
+	}
+
+	@GetMapping("/history/{username}/{id}")
+	public ResponseEntity<OrderResponse> getOrderForUser(@PathVariable String username, @PathVariable long id) {
+
+		UserOrder order = orderRepository.findWithLinesByIdAndUsername(id, username);
+
+		if(order == null) {
+			logger.warn("Order {} of {} couldn't be found", id, username);
+			return ResponseEntity.notFound().build();
+		}
+
+		return ResponseEntity.ok(OrderResponse.createFrom(order));
+	}
+
+	private static ResponseEntity<OrderResponse> accepted(UserOrder order) {
+		return ResponseEntity.accepted()
+				.location(URI.create("/api/order/reference/" + order.getReference()))
+				.body(OrderResponse.createFrom(order));
+	}
 }
@@ -4,6 +4,11 @@ package com.example.demo.controllers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,9 +17,12 @@ import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.model.responses.UserResponse;
+import com.example.demo.security.UserAccount;
 
 import java.util.Optional;
 
+@RestController
 @RequestMapping("/api/user")
 public class UserController extends  BaseController{
 	
@@ -27,8 +35,11 @@ public class UserController extends  BaseController{
 	@Autowired
 	private BCryptPasswordEncoder bCryptPasswordEncoder;
 
+	@Autowired
+	private AuthenticationManager authenticationManager;
+
 	@GetMapping("/id/{id}")
-	public ResponseEntity<User> findById(@PathVariable Long id) {
+	public ResponseEntity<UserResponse> findById(@PathVariable Long id) {
 		Optional<User> user = userRepository.findById(id);
 
 		if(!user.isPresent()){
@@ -37,11 +48,11 @@ public class UserController extends  BaseController{
 		}
 
 		logger.info("Found a user with id {}", id);
-		return ResponseEntity.ok(user.get());
+		return ResponseEntity.ok(UserResponse.createFrom(user.get()));
 	}
 	
 	@GetMapping("/{username}")
-	public ResponseEntity<User> findByUserName(@PathVariable String username) {
+	public ResponseEntity<UserResponse> findByUserName(@PathVariable String username) {
 
 		User user = userRepository.findByUsername(username);
 
@@ -51,11 +62,11 @@ public class UserController extends  BaseController{
 		}
 
 		logger.info("Found a user with name {}", user.getUsername());
-		return  ResponseEntity.ok(user);
+		return  ResponseEntity.ok(UserResponse.createFrom(user));
 	}
 	
 	@PostMapping("/create")
-	public ResponseEntity<User> createUser(@RequestBody CreateUserRequest createUserRequest) {
+	public ResponseEntity<UserResponse> createUser(@RequestBody CreateUserRequest createUserRequest) {
 
 		String requestPassword = createUserRequest.getPassword();
 
@@ -79,27 +90,32 @@ public class UserController extends  BaseController{
 		userRepository.save(user);
 
 		logger.info("A new user was created with username: {}", user.getUsername());
-		return ResponseEntity.ok(user);
+		return ResponseEntity.ok(UserResponse.createFrom(user));
 	}
 
 	@PostMapping("/login")
-	public ResponseEntity<User> login(@RequestBody CreateUserRequest createUserRequest) {
-
-		User user = userRepository.findByUsername(createUserRequest.getUsername());
+	public ResponseEntity<UserResponse> login(@RequestBody CreateUserRequest createUserRequest) {
 
-		if (user == null) {
-			logger.warn("User with username {} couldn't be found", createUserRequest.getUsername());
-			return ResponseEntity.notFound().build();
-		}
+		Authentication authentication;
+		try {
+			authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
+					createUserRequest.getUsername(), createUserRequest.getPassword()));
+		} catch (AuthenticationServiceException e) {
 
-		if (!bCryptPasswordEncoder.matches(createUserRequest.getPassword(), user.getPassword())) {
+			logger.error("Couldn't authenticate {}: {}", createUserRequest.getUsername(), e.getMessage());
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+		} catch (AuthenticationException e) {
 
+			// an unknown user gets the same 401 as a wrong password, not a 404, so
+			// the response doesn't tell which usernames exist
 			logger.error("An authorized user access with username {}", createUserRequest.getUsername());
 			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 		}
 
+		// the user details service already looked the user up
+		UserAccount account = (UserAccount) authentication.getPrincipal();
 
-		logger.info("User logged in with username: {}", user.getUsername());
-		return ResponseEntity.ok(user);
+		logger.info("User logged in with username: {}", account.getUsername());
+		return ResponseEntity.ok(new UserResponse(account.getId(), account.getUsername()));
 	}
 }
@@ -0,0 +1,120 @@
+package com.example.demo.events;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+import com.example.demo.model.persistence.UserOrder;
+
+/**
+ * A view of one record in the {@link OrderEventLog}. Records are
+ * {@value #RECORD_SIZE} bytes, little-endian:
+ * <pre>
+ *  0  int   CRC32C of bytes 4..63
+ *  4  int   units ordered
+ *  8  long  offset of the record in the log
+ * 16  long  order id
+ * 24  long  user id
+ * 32  long  reference, most significant bits
+ * 40  long  reference, least significant bits
+ * 48  long  total in minor units of the default currency
+ * 56  long  created at, epoch millis
+ * </pre>
+ * The getters read straight from the mapped segment, so an event handed to a
+ * {@link OrderEventReader.Handler} is only valid until the handler returns.
+ */
+public final class OrderEvent {
+
+	public static final int RECORD_SIZE = 64;
+
+	private static final int CRC = 0;
+	private static final int UNITS = 4;
+	private static final int OFFSET = 8;
+	private static final int ORDER_ID = 16;
+	private static final int USER_ID = 24;
+	private static final int REFERENCE_MSB = 32;
+	private static final int REFERENCE_LSB = 40;
+	private static final int TOTAL = 48;
+	private static final int CREATED_AT = 56;
+
+	private ByteBuffer buffer;
+	private int position;
+
+	OrderEvent() {
+	}
+
+	void wrap(ByteBuffer buffer, int position) {
+		this.buffer = buffer;
+		this.position = position;
+	}
+
+	public long getOffset() {
+		return buffer.getLong(position + OFFSET);
+	}
+
+	public long getOrderId() {
+		return buffer.getLong(position + ORDER_ID);
+	}
+
+	public long getUserId() {
+		return buffer.getLong(position + USER_ID);
+	}
+
+	public UUID getReference() {
+		return new UUID(buffer.getLong(position + REFERENCE_MSB), buffer.getLong(position + REFERENCE_LSB));
+	}
+
+	public long getTotalMinorUnits() {
+		return buffer.getLong(position + TOTAL);
+	}
+
+	public long getCreatedAtEpochMillis() {
+		return buffer.getLong(position + CREATED_AT);
+	}
+
+	public int getUnits() {
+		return buffer.getInt(position + UNITS);
+	}
+
+	/**
+	 * Fills {@code record}, a little-endian buffer of {@value #RECORD_SIZE}
+	 * bytes, with the event for {@code order} at {@code offset}.
+	 */
+	static void write(ByteBuffer record, CRC32C crc, long offset, UserOrder order) {
+		UUID reference = UUID.fromString(order.getReference());
+		record.clear();
+		record.putInt(UNITS, order.getUnits())
+				.putLong(OFFSET, offset)
+				.putLong(ORDER_ID, order.getId())
+				.putLong(USER_ID, order.getUser().getId())
+				.putLong(REFERENCE_MSB, reference.getMostSignificantBits())
+				.putLong(REFERENCE_LSB, reference.getLeastSignificantBits())
+				.putLong(TOTAL, order.getTotal().getMinorUnits())
+				.putLong(CREATED_AT, order.getCreatedAt().toEpochMilli());
+		record.putInt(CRC, checksum(record, 0, crc));
+	}
+
+	/**
+	 * Whether the record at {@code position} holds the event at
+	 * {@code offset}: its checksum holds and it names that offset. A slot that
+	 * was never written, or was cut short by a crash, fails one or the other.
+	 */
+	static boolean isValid(ByteBuffer segment, int position, long offset, CRC32C crc) {
+		return segment.getLong(position + OFFSET) == offset
+				&& segment.getInt(position + CRC) == checksum(segment, position, crc);
+	}
+
+	static ByteBuffer newRecord() {
+		return ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	// moves the position and limit of buffer, callers own it
+	private static int checksum(ByteBuffer buffer, int position, CRC32C crc) {
+		crc.reset();
+		buffer.limit(position + RECORD_SIZE).position(position + UNITS);
+		crc.update(buffer);
+		buffer.clear();
+		return (int) crc.getValue();
+	}
+}
@@ -0,0 +1,369 @@
+package com.example.demo.events;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.demo.model.persistence.UserOrder;
+
+/**
+ * Append-only log of persisted orders, one fixed-size {@link OrderEvent}
+ * record each, in memory-mapped segment files named after the offset of
+ * their first record. Appending is a copy into the mapped segment, the OS
+ * writes it out; {@link Fsync} decides how often it is forced to the disk.
+ *
+ * Readers in this process tail the log through {@link #openReader(String)}
+ * and stop at the last published record. A reader elsewhere can read the
+ * segment files directly and stop at the first record that doesn't pass
+ * {@link OrderEvent}'s checks. One log writes to a directory at a time.
+ *
+ * The ids of orders whose append fails are kept in a file next to the
+ * segments, for {@link #appendMissed(Function)} to append them on the next
+ * start.
+ */
+public class OrderEventLog implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(OrderEventLog.class);
+
+	private static final String PREFIX = "segment-";
+	private static final String SUFFIX = ".events";
+	private static final String OFFSETS = "offsets";
+	private static final String MISSED = "missed-orders";
+
+	public enum Fsync {
+		// left to the OS, forced when a segment is sealed and on close
+		NEVER,
+		// forced after every append, before it returns
+		ALWAYS,
+		// forced by a background thread every fsync interval
+		INTERVAL
+	}
+
+	private final Path directory;
+	private final int segmentRecords;
+	private final Fsync fsync;
+	private final FileChannel lockFile;
+	private final FileLock directoryLock;
+	private final ScheduledExecutorService forcer;
+	// held while forcing to the disk, so a lock rather than a monitor, see CartJournal
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final CRC32C crc = new CRC32C();
+	private final ByteBuffer record = OrderEvent.newRecord();
+	// base offset -> records the segment holds
+	private final NavigableMap<Long, Integer> segments = new ConcurrentSkipListMap<>();
+
+	private final LongAdder failedAppends = new LongAdder();
+
+	private long segmentBase;
+	private MappedByteBuffer segment;
+	private volatile long endOffset;
+
+	public OrderEventLog(Path directory, int segmentRecords, Fsync fsync, long fsyncIntervalMillis) throws IOException {
+		if(segmentRecords < 1 || segmentRecords > Integer.MAX_VALUE / OrderEvent.RECORD_SIZE) {
+			throw new IllegalArgumentException("A segment holds 1 to " + Integer.MAX_VALUE / OrderEvent.RECORD_SIZE
+					+ " records, not " + segmentRecords);
+		}
+		this.directory = Files.createDirectories(directory);
+		this.segmentRecords = segmentRecords;
+		this.fsync = fsync;
+
+		this.lockFile = FileChannel.open(directory.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		FileLock directoryLock;
+		try {
+			directoryLock = lockFile.tryLock();
+		} catch (OverlappingFileLockException e) {
+			directoryLock = null;
+		}
+		if(directoryLock == null) {
+			lockFile.close();
+			throw new IOException("Another order event log is writing to " + directory);
+		}
+		this.directoryLock = directoryLock;
+
+		recover();
+
+		if(fsync == Fsync.INTERVAL) {
+			forcer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "order-events-fsync");
+				thread.setDaemon(true);
+				return thread;
+			});
+			forcer.scheduleWithFixedDelay(this::force, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+		} else {
+			forcer = null;
+		}
+	}
+
+	/**
+	 * Appends the event for a persisted {@code order}.
+	 *
+	 * @return the offset of its record
+	 */
+	public long append(UserOrder order) throws IOException {
+		return append(Collections.singletonList(order));
+	}
+
+	/**
+	 * Appends one event per persisted order, in order, and publishes them to
+	 * readers together.
+	 *
+	 * @return the offset of the first record
+	 */
+	public long append(Collection<UserOrder> orders) throws IOException {
+		if(orders.isEmpty()) {
+			return endOffset;
+		}
+		lock.lock();
+		try {
+			long first = endOffset;
+			long offset = first;
+			for(UserOrder order : orders) {
+				if(offset - segmentBase == segments.get(segmentBase)) {
+					roll(offset);
+				}
+				OrderEvent.write(record, crc, offset, order);
+				segment.position((int) (offset - segmentBase) * OrderEvent.RECORD_SIZE);
+				segment.put(record);
+				offset++;
+			}
+			if(fsync == Fsync.ALWAYS) {
+				segment.force();
+			}
+			endOffset = offset;
+			return first;
+		} catch (IOException | RuntimeException e) {
+			failedAppends.add(orders.size());
+			recordMissed(orders);
+			discardUnpublished();
+			throw e;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Appends the orders that failed to append before, in id order, looking
+	 * them up with {@code findOrders}. Orders it can't find anymore are
+	 * dropped. Should the process stop before the missed ids are cleared,
+	 * the next call appends them again.
+	 *
+	 * @return the number of orders appended
+	 */
+	public int appendMissed(Function<Collection<Long>, List<UserOrder>> findOrders) throws IOException {
+		Path missed = directory.resolve(MISSED);
+		lock.lock();
+		try {
+			if(!Files.exists(missed)) {
+				return 0;
+			}
+			List<Long> orderIds = Files.readAllLines(missed).stream()
+					.filter(line -> !line.isEmpty())
+					.map(Long::valueOf)
+					.distinct()
+					.collect(Collectors.toList());
+			List<UserOrder> orders = new ArrayList<>(findOrders.apply(orderIds));
+			orders.sort(Comparator.comparing(UserOrder::getId));
+			append(orders);
+			Files.delete(missed);
+			logger.info("Appended {} of {} missed orders to the order event log", orders.size(), orderIds.size());
+			return orders.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Orders that couldn't be appended since the log was opened.
+	 */
+	public long getFailedAppends() {
+		return failedAppends.sum();
+	}
+
+	/**
+	 * The offset the next record will get, so also the number of records
+	 * appended since the log was created.
+	 */
+	public long getEndOffset() {
+		return endOffset;
+	}
+
+	public long getStartOffset() {
+		return segments.firstKey();
+	}
+
+	/**
+	 * Opens a reader that starts where {@code consumer} last committed, or at
+	 * the start of the log for a new consumer.
+	 */
+	public OrderEventReader openReader(String consumer) throws IOException {
+		Path offsetFile = Files.createDirectories(directory.resolve(OFFSETS)).resolve(consumer);
+		return new OrderEventReader(this, offsetFile);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(forcer != null) {
+			forcer.shutdown();
+		}
+		lock.lock();
+		try {
+			segment.force();
+			directoryLock.release();
+			lockFile.close();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * The segment holding {@code offset}, as base offset and record count.
+	 */
+	Map.Entry<Long, Integer> segmentOf(long offset) {
+		return segments.floorEntry(offset);
+	}
+
+	Path path(long base) {
+		return directory.resolve(String.format("%s%020d%s", PREFIX, base, SUFFIX));
+	}
+
+	static MappedByteBuffer map(Path path, int records, FileChannel.MapMode mode) throws IOException {
+		StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+				? new StandardOpenOption[] {StandardOpenOption.READ}
+				: new StandardOpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE};
+		try (FileChannel channel = FileChannel.open(path, options)) {
+			MappedByteBuffer buffer = channel.map(mode, 0, (long) records * OrderEvent.RECORD_SIZE);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return buffer;
+		}
+	}
+
+	private void force() {
+		lock.lock();
+		try {
+			segment.force();
+		} catch (RuntimeException e) {
+			logger.error("Couldn't force the order event log to the disk", e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void recordMissed(Collection<UserOrder> orders) {
+		List<String> orderIds = new ArrayList<>(orders.size());
+		for(UserOrder order : orders) {
+			if(order.getId() != null) {
+				orderIds.add(order.getId().toString());
+			}
+		}
+		try {
+			Files.write(directory.resolve(MISSED), orderIds, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		} catch (IOException | RuntimeException e) {
+			logger.error("Couldn't record the missed orders {}", orderIds, e);
+		}
+	}
+
+	/**
+	 * Clears what a failed append wrote past the end of the log, so it can't
+	 * be recovered as published, and drops the segments it rolled over to.
+	 */
+	private void discardUnpublished() {
+		try {
+			if(segmentBase > endOffset || segmentBase == endOffset && segmentBase != segments.firstKey()) {
+				for(Long base : segments.tailMap(endOffset, segmentBase == endOffset).keySet()) {
+					segments.remove(base);
+					Files.deleteIfExists(path(base));
+				}
+				segmentBase = segments.lastKey();
+				segment = map(path(segmentBase), segments.get(segmentBase), FileChannel.MapMode.READ_WRITE);
+			}
+			clear((int) (endOffset - segmentBase));
+		} catch (IOException | RuntimeException e) {
+			logger.error("Couldn't clear the unpublished order events after offset {}", endOffset, e);
+		}
+	}
+
+	/**
+	 * Zeroes the current segment from record {@code from} on.
+	 */
+	private void clear(int from) {
+		int records = segments.get(segmentBase);
+		for(int position = from * OrderEvent.RECORD_SIZE; position < records * OrderEvent.RECORD_SIZE; position += Long.BYTES) {
+			// reading first leaves the pages of a sparse file unallocated
+			if(segment.getLong(position) != 0L) {
+				segment.putLong(position, 0L);
+			}
+		}
+	}
+
+	private void roll(long base) throws IOException {
+		if(fsync != Fsync.ALWAYS) {
+			segment.force();
+		}
+		segments.put(base, segmentRecords);
+		segmentBase = base;
+		segment = map(path(base), segmentRecords, FileChannel.MapMode.READ_WRITE);
+		logger.debug("Writing order event segment {}", path(base));
+	}
+
+	/**
+	 * Finds the end of the last segment: the first record that doesn't pass
+	 * the checks. Whatever follows it is cleared, so a record that reached
+	 * the disk after an earlier one was lost can't be read later.
+	 */
+	private void recover() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			files.map(path -> path.getFileName().toString())
+					.filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+					.forEach(name -> {
+						long base = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+						try {
+							segments.put(base, (int) (Files.size(directory.resolve(name)) / OrderEvent.RECORD_SIZE));
+						} catch (IOException e) {
+							throw new IllegalStateException("Couldn't read the size of " + name, e);
+						}
+					});
+		}
+		if(segments.isEmpty()) {
+			segments.put(0L, segmentRecords);
+		}
+
+		segmentBase = segments.lastKey();
+		int records = segments.get(segmentBase);
+		segment = map(path(segmentBase), records, FileChannel.MapMode.READ_WRITE);
+		int valid = 0;
+		while (valid < records && OrderEvent.isValid(segment, valid * OrderEvent.RECORD_SIZE, segmentBase + valid, crc)) {
+			valid++;
+		}
+		clear(valid);
+		endOffset = segmentBase + valid;
+		logger.info("Order event log in {} ends at offset {}", directory, endOffset);
+	}
+}
@@ -0,0 +1,99 @@
+package com.example.demo.events;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Tails an {@link OrderEventLog} for one consumer. Events are handed out as
+ * views of a read-only mapping of their segment, nothing is copied. The
+ * position only survives a restart once it is {@link #commit() committed},
+ * so a consumer that commits after handling a batch sees every event at
+ * least once. Not thread-safe, a reader belongs to one consumer thread.
+ */
+public class OrderEventReader {
+
+	public interface Handler {
+		void onEvent(OrderEvent event);
+	}
+
+	private final OrderEventLog log;
+	private final Path offsetFile;
+	private final OrderEvent event = new OrderEvent();
+	private final CRC32C crc = new CRC32C();
+
+	private long offset;
+	private long segmentBase = -1;
+	private int segmentRecords;
+	private MappedByteBuffer segment;
+
+	OrderEventReader(OrderEventLog log, Path offsetFile) throws IOException {
+		this.log = log;
+		this.offsetFile = offsetFile;
+		this.offset = Files.exists(offsetFile)
+				? ByteBuffer.wrap(Files.readAllBytes(offsetFile)).order(ByteOrder.LITTLE_ENDIAN).getLong()
+				: log.getStartOffset();
+	}
+
+	/**
+	 * Hands up to {@code limit} of the events appended since the last poll
+	 * to {@code handler}, oldest first.
+	 *
+	 * @return how many it handed out, 0 when the reader is at the end
+	 */
+	public int poll(Handler handler, int limit) throws IOException {
+		long end = Math.min(log.getEndOffset(), offset + limit);
+		int polled = 0;
+		for(; offset < end; offset++, polled++) {
+			if(offset - segmentBase >= segmentRecords || offset < segmentBase) {
+				map(offset);
+			}
+			int position = (int) (offset - segmentBase) * OrderEvent.RECORD_SIZE;
+			if(!OrderEvent.isValid(segment, position, offset, crc)) {
+				throw new IllegalStateException("Order event " + offset + " in " + log.path(segmentBase) + " is corrupt");
+			}
+			event.wrap(segment, position);
+			handler.onEvent(event);
+		}
+		return polled;
+	}
+
+	/**
+	 * The offset of the next event {@link #poll} hands out.
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	public void seek(long offset) {
+		this.offset = offset;
+	}
+
+	/**
+	 * Stores the position, so the next reader of this consumer starts here.
+	 */
+	public void commit() throws IOException {
+		byte[] bytes = new byte[Long.BYTES];
+		ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putLong(offset);
+		Path next = offsetFile.resolveSibling(offsetFile.getFileName() + ".next");
+		Files.write(next, bytes);
+		Files.move(next, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private void map(long offset) throws IOException {
+		Map.Entry<Long, Integer> found = log.segmentOf(offset);
+		if(found == null) {
+			throw new IllegalStateException("Order event " + offset + " is before the start of the log");
+		}
+		segmentBase = found.getKey();
+		segmentRecords = found.getValue();
+		segment = OrderEventLog.map(log.path(segmentBase), segmentRecords, FileChannel.MapMode.READ_ONLY);
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.demo.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer, after
+ * Dmitry Vyukov's bounded MPMC queue. Each slot carries a sequence number
+ * that tells producers whether it is free and the consumer whether it has
+ * been published, so neither side ever takes a lock.
+ */
+class RingBuffer<E> {
+
+	private final Object[] slots;
+	private final AtomicLongArray sequences;
+	private final int mask;
+
+	private final AtomicLong tail = new AtomicLong();
+	// only the consumer writes it
+	private volatile long head;
+
+	RingBuffer(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		this.slots = new Object[size];
+		this.sequences = new AtomicLongArray(size);
+		this.mask = size - 1;
+		for(int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * @return {@code false} when the buffer is full
+	 */
+	boolean offer(E element) {
+		long position = tail.get();
+		while (true) {
+			int index = (int) (position & mask);
+			long available = sequences.get(index) - position;
+			if(available == 0) {
+				if(tail.compareAndSet(position, position + 1)) {
+					slots[index] = element;
+					sequences.set(index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if(available < 0) {
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Must only be called from the consumer thread.
+	 *
+	 * @return the oldest published element, or {@code null} when there is none
+	 */
+	@SuppressWarnings("unchecked")
+	E poll() {
+		long position = head;
+		int index = (int) (position & mask);
+		if(sequences.get(index) != position + 1) {
+			return null;
+		}
+		E element = (E) slots[index];
+		slots[index] = null;
+		sequences.set(index, position + slots.length);
+		head = position + 1;
+		return element;
+	}
+
+	int capacity() {
+		return slots.length;
+	}
+
+	int size() {
+		return (int) Math.max(0, Math.min(slots.length, tail.get() - head));
+	}
+}
@@ -0,0 +1,274 @@
+package com.example.demo.logging;
+
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.AppenderAttachableImpl;
+import org.apache.log4j.spi.AppenderAttachable;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Hands events to the attached appenders from a background thread, so the
+ * logging thread never waits on console or file I/O. Events wait in a
+ * bounded {@link RingBuffer}; when fewer than {@code DiscardingThreshold}
+ * slots are left, INFO and below are dropped, and when the buffer is full
+ * everything is dropped (or, with {@code NeverBlock=false}, the caller
+ * waits). Drops are counted and reported as a WARN event once there is room.
+ *
+ * Attach appenders with {@code appender-ref} in log4j.xml; the properties
+ * configurator can't nest appenders.
+ */
+public class RingBufferAppender extends AppenderSkeleton implements AppenderAttachable {
+
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	private final AppenderAttachableImpl appenders = new AppenderAttachableImpl();
+	private final AtomicLong dropped = new AtomicLong();
+	private long reportedDrops;
+
+	private int bufferSize = 8192;
+	private int discardingThreshold = -1;
+	private boolean neverBlock = true;
+	private boolean locationInfo;
+
+	private RingBuffer<LoggingEvent> buffer;
+	private Thread worker;
+	private volatile boolean running;
+	private volatile boolean idle;
+
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Free slots below which INFO and lower events are dropped, a fifth of
+	 * the buffer by default. 0 keeps every level until the buffer is full.
+	 */
+	public void setDiscardingThreshold(int discardingThreshold) {
+		this.discardingThreshold = discardingThreshold;
+	}
+
+	public int getDiscardingThreshold() {
+		return discardingThreshold;
+	}
+
+	public void setNeverBlock(boolean neverBlock) {
+		this.neverBlock = neverBlock;
+	}
+
+	public boolean getNeverBlock() {
+		return neverBlock;
+	}
+
+	/**
+	 * Captures caller location before the hand-off, for layouts using
+	 * %F, %L, %M or %l. Costs a stack walk per event.
+	 */
+	public void setLocationInfo(boolean locationInfo) {
+		this.locationInfo = locationInfo;
+	}
+
+	public boolean getLocationInfo() {
+		return locationInfo;
+	}
+
+	@Override
+	public void activateOptions() {
+		buffer = new RingBuffer<>(bufferSize);
+		if(discardingThreshold < 0) {
+			discardingThreshold = buffer.capacity() / 5;
+		}
+		running = true;
+		worker = new Thread(this::drain, "log-writer-" + getName());
+		worker.setDaemon(true);
+		worker.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(this::close, "log-writer-shutdown"));
+	}
+
+	/**
+	 * Same checks as {@link AppenderSkeleton#doAppend}, without its lock.
+	 */
+	@Override
+	public void doAppend(LoggingEvent event) {
+		if(closed || !isAsSevereAsThreshold(event.getLevel())) {
+			return;
+		}
+		for(Filter filter = getFirstFilter(); filter != null; filter = filter.getNext()) {
+			int decision = filter.decide(event);
+			if(decision == Filter.DENY) {
+				return;
+			}
+			if(decision == Filter.ACCEPT) {
+				break;
+			}
+		}
+		append(event);
+	}
+
+	@Override
+	protected void append(LoggingEvent event) {
+		if(buffer == null || !running) {
+			dropped.incrementAndGet();
+			return;
+		}
+		if(!event.getLevel().isGreaterOrEqual(Level.WARN)
+				&& buffer.capacity() - buffer.size() < discardingThreshold) {
+			dropped.incrementAndGet();
+			return;
+		}
+
+		// these read thread-bound state, so resolve them on the calling thread
+		event.getNDC();
+		event.getThreadName();
+		event.getMDCCopy();
+		event.getRenderedMessage();
+		event.getThrowableStrRep();
+		if(locationInfo) {
+			event.getLocationInformation();
+		}
+
+		while (!buffer.offer(event)) {
+			if(neverBlock || !running) {
+				dropped.incrementAndGet();
+				return;
+			}
+			LockSupport.parkNanos(FULL_PARK_NANOS);
+		}
+		if(idle) {
+			LockSupport.unpark(worker);
+		}
+	}
+
+	public long getDroppedEvents() {
+		return dropped.get();
+	}
+
+	public int getQueuedEvents() {
+		return buffer == null ? 0 : buffer.size();
+	}
+
+	private void drain() {
+		while (true) {
+			LoggingEvent event = buffer.poll();
+			if(event == null) {
+				if(!running) {
+					return;
+				}
+				idle = true;
+				// re-check, a producer may have missed the idle flag
+				event = buffer.poll();
+				if(event == null) {
+					LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+					idle = false;
+					continue;
+				}
+				idle = false;
+			}
+			reportDrops(event);
+			synchronized (appenders) {
+				appenders.appendLoopOnAppenders(event);
+			}
+		}
+	}
+
+	private void reportDrops(LoggingEvent next) {
+		long drops = dropped.get();
+		if(drops != reportedDrops) {
+			String message = "Dropped " + (drops - reportedDrops) + " log events, the async buffer was full";
+			reportedDrops = drops;
+			synchronized (appenders) {
+				appenders.appendLoopOnAppenders(new LoggingEvent(Logger.class.getName(),
+						Logger.getLogger(RingBufferAppender.class), next.getTimeStamp(), Level.WARN, message, null));
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		synchronized (this) {
+			if(closed) {
+				return;
+			}
+			closed = true;
+		}
+		running = false;
+		if(worker != null) {
+			LockSupport.unpark(worker);
+			try {
+				worker.join(TimeUnit.SECONDS.toMillis(5));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		synchronized (appenders) {
+			appenders.removeAllAppenders();
+		}
+	}
+
+	@Override
+	public boolean requiresLayout() {
+		return false;
+	}
+
+	@Override
+	public void addAppender(Appender appender) {
+		synchronized (appenders) {
+			appenders.addAppender(appender);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public Enumeration getAllAppenders() {
+		synchronized (appenders) {
+			return appenders.getAllAppenders();
+		}
+	}
+
+	@Override
+	public Appender getAppender(String name) {
+		synchronized (appenders) {
+			return appenders.getAppender(name);
+		}
+	}
+
+	@Override
+	public boolean isAttached(Appender appender) {
+		synchronized (appenders) {
+			return appenders.isAttached(appender);
+		}
+	}
+
+	@Override
+	public void removeAllAppenders() {
+		synchronized (appenders) {
+			appenders.removeAllAppenders();
+		}
+	}
+
+	@Override
+	public void removeAppender(Appender appender) {
+		synchronized (appenders) {
+			appenders.removeAppender(appender);
+		}
+	}
+
+	@Override
+	public void removeAppender(String name) {
+		synchronized (appenders) {
+			appenders.removeAppender(name);
+		}
+	}
+}
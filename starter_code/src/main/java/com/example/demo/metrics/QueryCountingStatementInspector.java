@@ -0,0 +1,27 @@
+package com.example.demo.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so a
+ * request can report how many queries it took. Registered through
+ * {@code hibernate.session_factory.statement_inspector}.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+	private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+	@Override
+	public String inspect(String sql) {
+		COUNT.get()[0]++;
+		return sql;
+	}
+
+	public static void reset() {
+		COUNT.get()[0] = 0;
+	}
+
+	public static int current() {
+		return COUNT.get()[0];
+	}
+}
@@ -0,0 +1,54 @@
+package com.example.demo.metrics;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records the number of SQL statements each request ran as
+ * {@code http.server.requests.queries}, tagged like
+ * {@code http.server.requests}. Runs ahead of the security filters so the
+ * user lookups done while authenticating are counted too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestQueryCountFilter extends OncePerRequestFilter {
+
+	static final String METRIC = "http.server.requests.queries";
+
+	private final MeterRegistry meterRegistry;
+
+	public RequestQueryCountFilter(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		QueryCountingStatementInspector.reset();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			DistributionSummary.builder(METRIC)
+					.description("SQL statements per request")
+					.baseUnit("statements")
+					.tag("method", request.getMethod())
+					.tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+					.register(meterRegistry)
+					.record(QueryCountingStatementInspector.current());
+		}
+	}
+}
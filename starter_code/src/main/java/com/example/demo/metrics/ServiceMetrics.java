@@ -0,0 +1,138 @@
+package com.example.demo.metrics;
+
+import java.util.Enumeration;
+import java.util.Map;
+
+import org.apache.log4j.LogManager;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.events.OrderEventLog;
+import com.example.demo.logging.RingBufferAppender;
+import com.example.demo.security.JWTTokenVerifier;
+import com.example.demo.security.UserDetailsServiceImpl;
+import com.example.demo.services.CartService;
+import com.example.demo.services.InMemoryCartEngine;
+import com.example.demo.services.ItemCatalog;
+import com.example.demo.services.OrderSubmissionQueue;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes the counters the services already keep. Request timings come
+ * from Spring Boot's {@code http.server.requests}, see application.properties
+ * for the percentiles and the local management port.
+ *
+ * Binds once every singleton exists, because some of the services take the
+ * registry themselves and would otherwise depend on it in a cycle.
+ */
+@Component
+public class ServiceMetrics implements SmartInitializingSingleton {
+
+	private final MeterRegistry registry;
+	private final ObjectProvider<ItemCatalog> itemCatalog;
+	private final ObjectProvider<JWTTokenVerifier> tokenVerifier;
+	private final ObjectProvider<UserDetailsServiceImpl> userDetailsService;
+	private final ObjectProvider<OrderSubmissionQueue> orderSubmissionQueue;
+	private final ObjectProvider<CartService> cartService;
+	private final ObjectProvider<InMemoryCartEngine> inMemoryCartEngine;
+	private final ObjectProvider<OrderEventLog> orderEventLog;
+
+	public ServiceMetrics(MeterRegistry registry, ObjectProvider<ItemCatalog> itemCatalog,
+			ObjectProvider<JWTTokenVerifier> tokenVerifier, ObjectProvider<UserDetailsServiceImpl> userDetailsService,
+			ObjectProvider<OrderSubmissionQueue> orderSubmissionQueue, ObjectProvider<CartService> cartService,
+			ObjectProvider<InMemoryCartEngine> inMemoryCartEngine, ObjectProvider<OrderEventLog> orderEventLog) {
+		this.registry = registry;
+		this.itemCatalog = itemCatalog;
+		this.tokenVerifier = tokenVerifier;
+		this.userDetailsService = userDetailsService;
+		this.orderSubmissionQueue = orderSubmissionQueue;
+		this.cartService = cartService;
+		this.inMemoryCartEngine = inMemoryCartEngine;
+		this.orderEventLog = orderEventLog;
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		itemCatalog.ifAvailable(catalog -> {
+			for(Map.Entry<String, BoundedCache<?, ?>> cache : catalog.getCaches().entrySet()) {
+				bindCache(registry, cache.getKey(), cache.getValue());
+			}
+		});
+		tokenVerifier.ifAvailable(verifier -> bindCache(registry, "jwt_verified_tokens", verifier.getVerifiedTokens()));
+		userDetailsService.ifAvailable(service -> bindCache(registry, "user_password_hashes", service.getAccounts()));
+
+		orderSubmissionQueue.ifAvailable(queue ->
+				Gauge.builder("orders.async.queued", queue, OrderSubmissionQueue::getQueuedOrders)
+						.description("Orders accepted but not yet persisted")
+						.register(registry));
+		orderEventLog.ifAvailable(log -> {
+			FunctionCounter.builder("orders.events.appended", log, OrderEventLog::getEndOffset)
+					.description("Order events in the log, the offset the next one gets")
+					.register(registry);
+			FunctionCounter.builder("orders.events.failed", log, OrderEventLog::getFailedAppends)
+					.description("Persisted orders that couldn't be appended to the log, appended on the next start")
+					.register(registry);
+		});
+
+		cartService.ifAvailable(service -> {
+			FunctionCounter.builder("cart.conflicts", service, CartService::getConflictCount)
+					.description("Cart changes rolled back by a concurrent change")
+					.register(registry);
+			FunctionCounter.builder("cart.retries.exhausted", service, CartService::getExhaustedRetryCount)
+					.description("Cart changes that gave up with 409 Conflict")
+					.register(registry);
+		});
+		inMemoryCartEngine.ifAvailable(engine -> {
+			Gauge.builder("cart.memory.active", engine, InMemoryCartEngine::getActiveCarts)
+					.register(registry);
+			Gauge.builder("cart.memory.dirty", engine, InMemoryCartEngine::getDirtyCarts)
+					.register(registry);
+			FunctionCounter.builder("cart.memory.flushed", engine, InMemoryCartEngine::getFlushedCarts)
+					.register(registry);
+			FunctionCounter.builder("cart.memory.flush.failures", engine, InMemoryCartEngine::getFailedFlushes)
+					.register(registry);
+		});
+
+		// log4j 1.2 hands back a raw enumeration
+		Enumeration<?> appenders = LogManager.getRootLogger().getAllAppenders();
+		while (appenders.hasMoreElements()) {
+			Object appender = appenders.nextElement();
+			if(appender instanceof RingBufferAppender) {
+				bindAppender(registry, (RingBufferAppender) appender);
+			}
+		}
+	}
+
+	private static void bindAppender(MeterRegistry registry, RingBufferAppender appender) {
+		FunctionCounter.builder("logging.events.dropped", appender, RingBufferAppender::getDroppedEvents)
+				.description("Log events dropped because the async buffer was (nearly) full")
+				.tag("appender", appender.getName())
+				.register(registry);
+		Gauge.builder("logging.events.queued", appender, RingBufferAppender::getQueuedEvents)
+				.tag("appender", appender.getName())
+				.register(registry);
+	}
+
+	private static void bindCache(MeterRegistry registry, String name, BoundedCache<?, ?> cache) {
+		Gauge.builder("cache.size", cache, BoundedCache::size)
+				.tag("cache", name)
+				.register(registry);
+		FunctionCounter.builder("cache.gets", cache, BoundedCache::getHitCount)
+				.tag("cache", name)
+				.tag("result", "hit")
+				.register(registry);
+		FunctionCounter.builder("cache.gets", cache, BoundedCache::getMissCount)
+				.tag("cache", name)
+				.tag("result", "miss")
+				.register(registry);
+		FunctionCounter.builder("cache.evictions", cache, BoundedCache::getEvictionCount)
+				.tag("cache", name)
+				.register(registry);
+	}
+}
@@ -1,18 +1,24 @@
 package com.example.demo.model.persistence;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import javax.persistence.CascadeType;
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.ManyToMany;
+import javax.persistence.MapKey;
+import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
@@ -20,30 +26,59 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public class Cart {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_seq")
+	@SequenceGenerator(name = "cart_seq", sequenceName = "cart_seq", allocationSize = 50)
 	@JsonProperty
 	@Column
 	private Long id;
 	
-	@ManyToMany
+	@OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
+	@MapKey(name = "itemId")
 	@JsonProperty
-	@Column
-    private List<Item> items;
+    private Map<Long, CartLine> lines = new HashMap<>();
 	
 	@OneToOne(mappedBy = "cart")
 	@JsonProperty
     private User user;
 	
+	// minor units, so adding and removing items doesn't allocate
 	@Column
-	@JsonProperty
-	private BigDecimal total;
+	@Convert(converter = MinorUnitsConverter.class)
+	@JsonIgnore
+	private long total;
+
+	@Version
+	@Column(nullable = false)
+	@JsonIgnore
+	private long version;
 	
-	public BigDecimal getTotal() {
-		return total;
+	@JsonProperty("total")
+	public Money getTotal() {
+		return Money.ofMinor(total);
+	}
+
+	public void setTotal(Money total) {
+		this.total = total.getMinorUnits();
+	}
+
+	/**
+	 * Sums the lines again, in minor units, for lines changed without
+	 * {@link #addItem(Item, int)} and {@link #removeItem(Item, int)}.
+	 */
+	public void recalculateTotal() {
+		long sum = 0;
+		for(CartLine line : lines.values()) {
+			sum = Math.addExact(sum, Math.multiplyExact(line.getUnitPrice().getMinorUnits(), line.getQuantity()));
+		}
+		total = sum;
 	}
 
-	public void setTotal(BigDecimal total) {
-		this.total = total;
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
 	}
 
 	public User getUser() {
@@ -62,34 +97,53 @@ public class Cart {
 		this.id = id;
 	}
 
-	public List<Item> getItems() {
-		return items;
+	public Map<Long, CartLine> getLines() {
+		return lines;
 	}
 
-	public void setItems(List<Item> items) {
-		this.items = items;
+	public void setLines(Map<Long, CartLine> lines) {
+		this.lines = lines;
 	}
-	
+
+	public int getQuantity(Item item) {
+		CartLine line = lines.get(item.getId());
+		return line == null ? 0 : line.getQuantity();
+	}
+
 	public void addItem(Item item) {
-		if(items == null) {
-			items = new ArrayList<>();
+		addItem(item, 1);
+	}
+
+	public void addItem(Item item, int quantity) {
+		if(quantity <= 0) {
+			return;
 		}
-		items.add(item);
-		if(total == null) {
-			total = new BigDecimal(0);
+		CartLine line = lines.get(item.getId());
+		if(line == null) {
+			line = CartLine.CreateCartLine(this, item, quantity);
+			lines.put(item.getId(), line);
+		} else {
+			line.setQuantity(line.getQuantity() + quantity);
 		}
-		total = total.add(item.getPrice());
+		total = Math.addExact(total, Math.multiplyExact(line.getUnitPrice().getMinorUnits(), quantity));
 	}
-	
+
 	public void removeItem(Item item) {
-		if(items == null) {
-			items = new ArrayList<>();
+		removeItem(item, 1);
+	}
+
+	public void removeItem(Item item, int quantity) {
+		CartLine line = lines.get(item.getId());
+		if(line == null || quantity <= 0) {
+			return;
 		}
-		items.remove(item);
-		if(total == null) {
-			total = new BigDecimal(0);
+		int removed = Math.min(quantity, line.getQuantity());
+		if(removed == line.getQuantity()) {
+			lines.remove(item.getId());
+		} else {
+			line.setQuantity(line.getQuantity() - removed);
 		}
-		total = total.subtract(item.getPrice());
+		total = Math.subtractExact(total, Math.multiplyExact(line.getUnitPrice().getMinorUnits(), removed));
 	}
 
 	public static Cart CreateCart(Long id, List<Item> items, User user){
@@ -97,14 +151,10 @@ public class Cart {
 		Cart cart = new Cart();
 
 		cart.setId(id);
-		cart.setItems(items);
 		cart.setUser(user);
 
-		BigDecimal total = items.stream()
-				.map(Item::getPrice)
-				.reduce(new BigDecimal(0), BigDecimal::add);
+		items.forEach(cart::addItem);
 
-		cart.setTotal(total);
 		return  cart;
 	}
 }
@@ -0,0 +1,111 @@
+package com.example.demo.model.persistence;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@Entity
+@Table(name = "cart_line",
+		uniqueConstraints = @UniqueConstraint(name = "uk_cart_line_item", columnNames = {"cart_id", "item_id"}))
+public class CartLine {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_line_seq")
+	@SequenceGenerator(name = "cart_line_seq", sequenceName = "cart_line_seq", allocationSize = 50)
+	@JsonIgnore
+	private Long id;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "cart_id", nullable = false)
+	@JsonIgnore
+	private Cart cart;
+
+	@Column(name = "item_id", nullable = false)
+	@JsonIgnore
+	private Long itemId;
+
+	@ManyToOne
+	@JoinColumn(name = "item_id", insertable = false, updatable = false)
+	@JsonProperty
+	private Item item;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private int quantity;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private Money unitPrice;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Cart getCart() {
+		return cart;
+	}
+
+	public void setCart(Cart cart) {
+		this.cart = cart;
+	}
+
+	public Long getItemId() {
+		return itemId;
+	}
+
+	public Item getItem() {
+		return item;
+	}
+
+	public void setItem(Item item) {
+		this.item = item;
+		this.itemId = item.getId();
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(int quantity) {
+		this.quantity = quantity;
+	}
+
+	public Money getUnitPrice() {
+		return unitPrice;
+	}
+
+	public void setUnitPrice(Money unitPrice) {
+		this.unitPrice = unitPrice;
+	}
+
+	public Money getSubtotal() {
+		return unitPrice.times(quantity);
+	}
+
+	public static CartLine CreateCartLine(Cart cart, Item item, int quantity){
+
+		CartLine line = new CartLine();
+
+		line.setCart(cart);
+		line.setItem(item);
+		line.setQuantity(quantity);
+		line.setUnitPrice(item.getPrice());
+
+		return line;
+	}
+}
@@ -1,21 +1,29 @@
 package com.example.demo.model.persistence;
 
-import java.math.BigDecimal;
-
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.example.demo.services.ItemChangeListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
-@Table(name = "item")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")
+@EntityListeners(ItemChangeListener.class)
+@Table(name = "item", indexes = @Index(name = "idx_item_name", columnList = "name"))
 public class Item {
 
 	@Id
@@ -29,7 +37,7 @@ public class Item {
 	
 	@Column(nullable = false)
 	@JsonProperty
-	private BigDecimal price;
+	private Money price;
 	
 	@Column(nullable = false)
 	@JsonProperty
@@ -76,11 +84,11 @@ public class Item {
 		this.name = name;
 	}
 
-	public BigDecimal getPrice() {
+	public Money getPrice() {
 		return price;
 	}
 
-	public void setPrice(BigDecimal price) {
+	public void setPrice(Money price) {
 		this.price = price;
 	}
 
@@ -92,7 +100,7 @@ public class Item {
 		this.description = description;
 	}
 
-	public static Item CreateItem(Long id, String name, BigDecimal price, String description){
+	public static Item CreateItem(Long id, String name, Money price, String description){
 
 		Item item = new Item();
 
@@ -0,0 +1,24 @@
+package com.example.demo.model.persistence;
+
+import java.math.BigDecimal;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Maps an amount kept as a plain count of minor units in the
+ * {@link Money#DEFAULT_CURRENCY} onto a decimal column.
+ */
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<Long, BigDecimal> {
+
+	@Override
+	public BigDecimal convertToDatabaseColumn(Long minorUnits) {
+		return minorUnits == null ? null : Money.ofMinor(minorUnits).toBigDecimal();
+	}
+
+	@Override
+	public Long convertToEntityAttribute(BigDecimal amount) {
+		return amount == null ? 0L : Money.of(amount).getMinorUnits();
+	}
+}
@@ -0,0 +1,192 @@
+package com.example.demo.model.persistence;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+/**
+ * Immutable fixed-point amount held as a count of the currency's minor units,
+ * so cart and order arithmetic is plain {@code long} math. Amounts are stored
+ * in the existing decimal columns through {@link MoneyConverter} and written
+ * to JSON as exact decimal numbers, the same way {@link BigDecimal} was.
+ * Serializable so entities holding it can sit in the second-level cache.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money>, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	// the schema has no currency column, every stored amount is in this one
+	public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+	public static final Money ZERO = new Money(0, DEFAULT_CURRENCY);
+
+	// sign, 19 digits, a leading zero and the decimal point
+	public static final int MAX_LENGTH = 22;
+
+	private final long minorUnits;
+	private final Currency currency;
+
+	private Money(long minorUnits, Currency currency) {
+		this.minorUnits = minorUnits;
+		this.currency = currency;
+	}
+
+	public static Money ofMinor(long minorUnits) {
+		return minorUnits == 0 ? ZERO : new Money(minorUnits, DEFAULT_CURRENCY);
+	}
+
+	/**
+	 * @throws ArithmeticException when {@code amount} has more decimals than the currency
+	 */
+	public static Money of(BigDecimal amount) {
+		return ofMinor(amount.setScale(DEFAULT_CURRENCY.getDefaultFractionDigits(), RoundingMode.UNNECESSARY)
+				.unscaledValue().longValueExact());
+	}
+
+	public static Money of(String amount) {
+		return of(new BigDecimal(amount));
+	}
+
+	public long getMinorUnits() {
+		return minorUnits;
+	}
+
+	public Currency getCurrency() {
+		return currency;
+	}
+
+	public boolean isZero() {
+		return minorUnits == 0;
+	}
+
+	public Money plus(Money other) {
+		return other.isZero() ? this : with(Math.addExact(minorUnits, minorUnits(other)));
+	}
+
+	public Money minus(Money other) {
+		return other.isZero() ? this : with(Math.subtractExact(minorUnits, minorUnits(other)));
+	}
+
+	public Money times(long factor) {
+		return factor == 1 ? this : with(Math.multiplyExact(minorUnits, factor));
+	}
+
+	/**
+	 * {@code this + price * quantity} in one step, without the intermediate amount.
+	 */
+	public Money plusTimes(Money price, long quantity) {
+		return quantity == 0 ? this
+				: with(Math.addExact(minorUnits, Math.multiplyExact(minorUnits(price), quantity)));
+	}
+
+	public BigDecimal toBigDecimal() {
+		return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+	}
+
+	private long minorUnits(Money other) {
+		if(!currency.equals(other.currency)) {
+			throw new IllegalArgumentException("Can't combine " + currency + " with " + other.currency);
+		}
+		return other.minorUnits;
+	}
+
+	private Money with(long minorUnits) {
+		return minorUnits == 0 && currency == DEFAULT_CURRENCY ? ZERO : new Money(minorUnits, currency);
+	}
+
+	@Override
+	public int compareTo(Money other) {
+		return Long.compare(minorUnits, minorUnits(other));
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(this == o) {
+			return true;
+		}
+		if(!(o instanceof Money)) {
+			return false;
+		}
+		Money other = (Money) o;
+		return minorUnits == other.minorUnits && currency.equals(other.currency);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+	}
+
+	/**
+	 * The amount as a plain decimal, e.g. {@code 2.99} or {@code -0.05}.
+	 */
+	@Override
+	public String toString() {
+		char[] text = new char[MAX_LENGTH];
+		return new String(text, 0, format(text));
+	}
+
+	/**
+	 * Writes {@link #toString()} to the start of {@code buffer}, for callers
+	 * that reuse one buffer across amounts.
+	 *
+	 * @param buffer at least {@link #MAX_LENGTH} long
+	 * @return the number of chars written
+	 */
+	public int format(char[] buffer) {
+		int scale = currency.getDefaultFractionDigits();
+		int position = buffer.length;
+		int digits = 0;
+		// negative, so Long.MIN_VALUE has an absolute value too
+		long remaining = minorUnits > 0 ? -minorUnits : minorUnits;
+		do {
+			buffer[--position] = (char) ('0' - remaining % 10);
+			remaining /= 10;
+			if(++digits == scale) {
+				buffer[--position] = '.';
+			}
+		} while (remaining != 0 || digits <= scale);
+		if(minorUnits < 0) {
+			buffer[--position] = '-';
+		}
+		int length = buffer.length - position;
+		System.arraycopy(buffer, position, buffer, 0, length);
+		return length;
+	}
+
+	static final class Serializer extends StdScalarSerializer<Money> {
+
+		Serializer() {
+			super(Money.class);
+		}
+
+		@Override
+		public void serialize(Money value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			generator.writeNumber(value.toString());
+		}
+	}
+
+	static final class Deserializer extends StdScalarDeserializer<Money> {
+
+		Deserializer() {
+			super(Money.class);
+		}
+
+		@Override
+		public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+			return Money.of(parser.getValueAsString());
+		}
+	}
+}
@@ -1,8 +1,9 @@
 package com.example.demo.model.persistence;
 
-import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -10,28 +11,46 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
-import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
+import javax.persistence.PrePersist;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 
+import com.example.demo.collections.LongLongHashMap;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
-@Table(name = "user_order")
+@Table(name = "user_order", indexes = {
+		@Index(name = "idx_user_order_reference", columnList = "reference", unique = true),
+		@Index(name = "idx_user_order_user", columnList = "user_id, id")
+})
 public class UserOrder {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_order_seq")
+	@SequenceGenerator(name = "user_order_seq", sequenceName = "user_order_seq", allocationSize = 50)
 	@JsonProperty
 	@Column
 	private Long id;
+
+	@JsonProperty
+	@Column(length = 36, nullable = false, updatable = false)
+	private String reference;
 	
-	@ManyToMany(cascade = CascadeType.ALL)
+	@OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+	@OrderBy("id")
 	@JsonProperty
-	@Column
-    private List<Item> items;
+    private List<OrderLine> lines = new ArrayList<>();
+
+	// item id to units, built from lines on first use
+	@Transient
+	private LongLongHashMap quantities;
 	
 	@ManyToOne
 	@JoinColumn(name="user_id", nullable = false, referencedColumnName = "id")
@@ -40,7 +59,11 @@ public class UserOrder {
 	
 	@JsonProperty
 	@Column
-	private BigDecimal total;
+	private Money total;
+
+	@JsonProperty
+	@Column(name = "created_at", nullable = false, updatable = false)
+	private Instant createdAt;
 
 	public Long getId() {
 		return id;
@@ -50,12 +73,92 @@ public class UserOrder {
 		this.id = id;
 	}
 
-	public List<Item> getItems() {
-		return items;
+	public String getReference() {
+		return reference;
+	}
+
+	public void setReference(String reference) {
+		this.reference = reference;
+	}
+
+	public List<OrderLine> getLines() {
+		return lines;
+	}
+
+	public void setLines(List<OrderLine> lines) {
+		this.lines = lines;
+		this.quantities = null;
+	}
+
+	/**
+	 * Adds {@code quantity} units of {@code item} at {@code unitPrice} to the
+	 * item's line, and their price to the total.
+	 */
+	public void addItem(Item item, int quantity, Money unitPrice) {
+		if(quantity <= 0) {
+			return;
+		}
+		addLine(item, quantity, unitPrice);
+		total = (total == null ? Money.ZERO : total).plusTimes(unitPrice, quantity);
+	}
+
+	public void addItem(Item item, int quantity) {
+		addItem(item, quantity, item.getPrice());
+	}
+
+	private void addLine(Item item, int quantity, Money unitPrice) {
+		LongLongHashMap quantities = quantities();
+		long itemId = item.getId();
+		if(quantities.containsKey(itemId)) {
+			for(OrderLine line : lines) {
+				if(line.getItemId() == itemId) {
+					line.setQuantity(line.getQuantity() + quantity);
+					break;
+				}
+			}
+		} else {
+			lines.add(OrderLine.CreateOrderLine(this, item, quantity, unitPrice));
+		}
+		quantities.addTo(itemId, quantity);
+	}
+
+	/**
+	 * The units of {@code itemId} in the order, without scanning its lines.
+	 */
+	public long getQuantity(long itemId) {
+		return quantities().get(itemId);
+	}
+
+	/**
+	 * The units of every item in the order.
+	 */
+	@JsonIgnore
+	public int getUnits() {
+		int units = 0;
+		for(OrderLine line : lines) {
+			units += line.getQuantity();
+		}
+		return units;
 	}
 
-	public void setItems(List<Item> items) {
-		this.items = items;
+	/**
+	 * Calls {@code consumer} once per distinct item with its units.
+	 */
+	public void forEachLine(LongLongHashMap.Consumer consumer) {
+		quantities().forEach(consumer);
+	}
+
+	private LongLongHashMap quantities() {
+		if(quantities == null) {
+			LongLongHashMap counted = new LongLongHashMap(lines == null ? 0 : lines.size());
+			if(lines != null) {
+				for(OrderLine line : lines) {
+					counted.addTo(line.getItemId(), line.getQuantity());
+				}
+			}
+			quantities = counted;
+		}
+		return quantities;
 	}
 
 	public User getUser() {
@@ -66,18 +169,42 @@ public class UserOrder {
 		this.user = user;
 	}
 	
-	public BigDecimal getTotal() {
+	public Money getTotal() {
 		return total;
 	}
 
-	public void setTotal(BigDecimal total) {
+	public void setTotal(Money total) {
 		this.total = total;
 	}
 
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	@PrePersist
+	void onPersist() {
+		if(createdAt == null) {
+			createdAt = Instant.now();
+		}
+	}
+
 	public static UserOrder createFromCart(Cart cart) {
 		UserOrder order = new UserOrder();
-		order.setItems(cart.getItems().stream().collect(Collectors.toList()));
-		order.setTotal(cart.getTotal());
+		order.setReference(UUID.randomUUID().toString());
+		order.setCreatedAt(Instant.now());
+		// one line per cart line, at the price it was added to the cart for
+		order.setLines(new ArrayList<>(cart.getLines().size()));
+		order.quantities = new LongLongHashMap(cart.getLines().size());
+		long total = 0;
+		for(CartLine line : cart.getLines().values()) {
+			order.addLine(line.getItem(), line.getQuantity(), line.getUnitPrice());
+			total = Math.addExact(total, Math.multiplyExact(line.getUnitPrice().getMinorUnits(), line.getQuantity()));
+		}
+		order.setTotal(Money.ofMinor(total));
 		order.setUser(cart.getUser());
 		return order;
 	}
@@ -0,0 +1,14 @@
+package com.example.demo.model.persistence.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.demo.model.persistence.CartLine;
+
+public interface CartLineRepository extends JpaRepository<CartLine, Long> {
+	CartLine findByCartIdAndItemId(Long cartId, Long itemId);
+
+	List<CartLine> findByCartIdAndItemIdIn(Long cartId, Collection<Long> itemIds);
+}
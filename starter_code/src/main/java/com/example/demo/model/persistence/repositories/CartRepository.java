@@ -1,9 +1,26 @@
 package com.example.demo.model.persistence.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.demo.model.persistence.Cart;
-import com.example.demo.model.persistence.User;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
+
+	@Query("select c.version from Cart c where c.id = :id")
+	Long findVersionById(@Param("id") Long id);
+
+	/**
+	 * Adds {@code amount} to the total and bumps the version, but only if the
+	 * cart is still at {@code version}.
+	 *
+	 * @param amount in minor units, see {@link com.example.demo.model.persistence.Money}
+	 * @return 1 when the cart was updated, 0 when another writer got there first
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Cart c set c.total = coalesce(c.total, 0) + :amount, c.version = c.version + 1"
+			+ " where c.id = :id and c.version = :version")
+	int incrementTotal(@Param("id") Long id, @Param("version") long version, @Param("amount") long amount);
 }
@@ -1,12 +1,27 @@
 package com.example.demo.model.persistence.repositories;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.example.demo.model.persistence.Item;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 	public List<Item> findByName(String name);
 
+	public List<Item> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+	@QueryHints({
+			@QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true")
+	})
+	@Query("select i from Item i order by i.id")
+	public Stream<Item> streamAllOrderById();
+
 }
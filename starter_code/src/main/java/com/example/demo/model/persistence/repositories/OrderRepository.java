@@ -1,12 +1,46 @@
 package com.example.demo.model.persistence.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.OrderSummary;
 
 public interface OrderRepository extends JpaRepository<UserOrder, Long> {
 	List<UserOrder> findByUser(User user);
+	UserOrder findByReference(String reference);
+
+	@Query("select new com.example.demo.model.responses.OrderSummary(o.id, o.reference, o.total, coalesce(sum(l.quantity), 0), o.createdAt)"
+			+ " from UserOrder o left join o.lines l"
+			+ " where o.user.id = :userId and o.id < :beforeId"
+			+ " group by o.id, o.reference, o.total, o.createdAt"
+			+ " order by o.id desc")
+	List<OrderSummary> findSummariesByUser(@Param("userId") long userId, @Param("beforeId") long beforeId,
+			Pageable pageable);
+
+	// distinct only de-duplicates the fetched roots, it isn't needed in the SQL
+	@QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+	@Query("select distinct o from UserOrder o left join fetch o.lines l left join fetch l.item"
+			+ " where o.id = :id and o.user.username = :username")
+	UserOrder findWithLinesByIdAndUsername(@Param("id") long id, @Param("username") String username);
+
+	@QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+	@Query("select distinct o from UserOrder o left join fetch o.lines l left join fetch l.item where o.user.id = :userId order by o.id")
+	List<UserOrder> findWithLinesByUserId(@Param("userId") long userId);
+
+	@Query("select o.id from UserOrder o where o.user.id = :userId and o.id < :beforeId order by o.id desc")
+	List<Long> findIdsByUser(@Param("userId") long userId, @Param("beforeId") long beforeId, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+	@Query("select distinct o from UserOrder o left join fetch o.lines l left join fetch l.item where o.id in :ids order by o.id desc")
+	List<UserOrder> findWithLinesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,14 @@
+package com.example.demo.model.persistence.repositories;
+
+import com.example.demo.model.persistence.User;
+
+/**
+ * Username lookups resolved through Hibernate's natural id, so repeated
+ * lookups are answered by the second-level cache instead of a query.
+ */
+public interface UserNaturalIdRepository {
+
+	User findByUsername(String username);
+
+	Long findCartIdByUsername(String username);
+}
@@ -0,0 +1,32 @@
+package com.example.demo.model.persistence.repositories;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+
+@Transactional(readOnly = true)
+class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public User findByUsername(String username) {
+		return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).load(username);
+	}
+
+	/**
+	 * The cart is a lazy proxy on the user, reading its id doesn't load it.
+	 */
+	@Override
+	public Long findCartIdByUsername(String username) {
+		User user = findByUsername(username);
+		Cart cart = user == null ? null : user.getCart();
+		return cart == null ? null : cart.getId();
+	}
+}
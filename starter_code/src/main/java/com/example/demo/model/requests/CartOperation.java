@@ -0,0 +1,60 @@
+package com.example.demo.model.requests;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One step of a {@link BulkModifyCartRequest}, the same change as an
+ * {@code addToCart} or {@code removeFromCart} call.
+ */
+public class CartOperation {
+
+	public enum Action {
+		@JsonProperty("add")
+		ADD,
+		@JsonProperty("remove")
+		REMOVE
+	}
+
+	@JsonProperty
+	private Action action;
+
+	@JsonProperty
+	private long itemId;
+
+	@JsonProperty
+	private int quantity;
+
+	public Action getAction() {
+		return action;
+	}
+
+	public void setAction(Action action) {
+		this.action = action;
+	}
+
+	public long getItemId() {
+		return itemId;
+	}
+
+	public void setItemId(long itemId) {
+		this.itemId = itemId;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(int quantity) {
+		this.quantity = quantity;
+	}
+
+	public static CartOperation CreateCartOperation(Action action, long itemId, int quantity) {
+		CartOperation operation = new CartOperation();
+
+		operation.setAction(action);
+		operation.setItemId(itemId);
+		operation.setQuantity(quantity);
+
+		return operation;
+	}
+}
@@ -0,0 +1,32 @@
+package com.example.demo.model.requests;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ImportOrderRequest {
+
+	@JsonProperty
+	private String username;
+
+	// item id -> quantity
+	@JsonProperty
+	private Map<Long, Integer> items;
+
+	public String getUsername() {
+		return username;
+	}
+
+	public void setUsername(String username) {
+		this.username = username;
+	}
+
+	public Map<Long, Integer> getItems() {
+		return items;
+	}
+
+	public void setItems(Map<Long, Integer> items) {
+		this.items = items;
+	}
+
+}
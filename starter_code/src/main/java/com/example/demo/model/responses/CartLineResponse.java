@@ -0,0 +1,50 @@
+package com.example.demo.model.responses;
+
+import com.example.demo.model.persistence.CartLine;
+import com.example.demo.model.persistence.Money;
+
+public class CartLineResponse {
+
+	private final long itemId;
+
+	private final ItemResponse item;
+
+	private final int quantity;
+
+	private final Money unitPrice;
+
+	private final Money subtotal;
+
+	public CartLineResponse(long itemId, ItemResponse item, int quantity, Money unitPrice, Money subtotal) {
+		this.itemId = itemId;
+		this.item = item;
+		this.quantity = quantity;
+		this.unitPrice = unitPrice;
+		this.subtotal = subtotal;
+	}
+
+	public long getItemId() {
+		return itemId;
+	}
+
+	public ItemResponse getItem() {
+		return item;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public Money getUnitPrice() {
+		return unitPrice;
+	}
+
+	public Money getSubtotal() {
+		return subtotal;
+	}
+
+	public static CartLineResponse createFrom(CartLine line) {
+		return new CartLineResponse(line.getItemId(), ItemResponse.createFrom(line.getItem()),
+				line.getQuantity(), line.getUnitPrice(), line.getSubtotal());
+	}
+}
@@ -0,0 +1,100 @@
+package com.example.demo.model.responses;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
+import com.example.demo.model.persistence.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * A cart copied out of the persistence context, so rendering it can't load
+ * anything. Written as the entity used to be, with lines keyed by item id.
+ */
+@JsonSerialize(using = CartResponse.Serializer.class)
+public class CartResponse {
+
+	private final Long id;
+
+	private final List<CartLineResponse> lines;
+
+	private final UserResponse user;
+
+	private final Money total;
+
+	public CartResponse(Long id, List<CartLineResponse> lines, UserResponse user, Money total) {
+		this.id = id;
+		this.lines = lines;
+		this.user = user;
+		this.total = total;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public List<CartLineResponse> getLines() {
+		return lines;
+	}
+
+	public int getQuantity(long itemId) {
+		for(CartLineResponse line : lines) {
+			if(line.getItemId() == itemId) {
+				return line.getQuantity();
+			}
+		}
+		return 0;
+	}
+
+	public UserResponse getUser() {
+		return user;
+	}
+
+	public Money getTotal() {
+		return total;
+	}
+
+	public static CartResponse createFrom(Cart cart) {
+		List<CartLineResponse> lines = new ArrayList<>(cart.getLines().size());
+		for(CartLine line : cart.getLines().values()) {
+			lines.add(CartLineResponse.createFrom(line));
+		}
+		return new CartResponse(cart.getId(), lines, UserResponse.createFrom(cart.getUser()), cart.getTotal());
+	}
+
+	static final class Serializer extends StdSerializer<CartResponse> {
+
+		Serializer() {
+			super(CartResponse.class);
+		}
+
+		@Override
+		public void serialize(CartResponse value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			char[] buffer = new char[Money.MAX_LENGTH];
+			generator.writeStartObject();
+			ResponseFields.writeId(generator, "id", value.id);
+			generator.writeFieldName("lines");
+			generator.writeStartObject();
+			for(CartLineResponse line : value.lines) {
+				generator.writeFieldId(line.getItemId());
+				generator.writeStartObject();
+				generator.writeFieldName("item");
+				ItemResponse.write(line.getItem(), generator, buffer);
+				generator.writeNumberField("quantity", line.getQuantity());
+				ResponseFields.writeMoney(generator, "unitPrice", line.getUnitPrice(), buffer);
+				ResponseFields.writeMoney(generator, "subtotal", line.getSubtotal(), buffer);
+				generator.writeEndObject();
+			}
+			generator.writeEndObject();
+			generator.writeFieldName("user");
+			UserResponse.write(value.user, generator);
+			ResponseFields.writeMoney(generator, "total", value.total, buffer);
+			generator.writeEndObject();
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.demo.model.responses;
+
+import java.io.IOException;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+@JsonSerialize(using = ItemResponse.Serializer.class)
+public class ItemResponse {
+
+	private final Long id;
+
+	private final String name;
+
+	private final Money price;
+
+	private final String description;
+
+	public ItemResponse(Long id, String name, Money price, String description) {
+		this.id = id;
+		this.name = name;
+		this.price = price;
+		this.description = description;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Money getPrice() {
+		return price;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public static ItemResponse createFrom(Item item) {
+		return item == null ? null : new ItemResponse(item.getId(), item.getName(), item.getPrice(), item.getDescription());
+	}
+
+	static void write(ItemResponse value, JsonGenerator generator, char[] buffer) throws IOException {
+		if(value == null) {
+			generator.writeNull();
+			return;
+		}
+		generator.writeStartObject();
+		ResponseFields.writeId(generator, "id", value.id);
+		generator.writeStringField("name", value.name);
+		ResponseFields.writeMoney(generator, "price", value.price, buffer);
+		generator.writeStringField("description", value.description);
+		generator.writeEndObject();
+	}
+
+	static final class Serializer extends StdSerializer<ItemResponse> {
+
+		Serializer() {
+			super(ItemResponse.class);
+		}
+
+		@Override
+		public void serialize(ItemResponse value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			write(value, generator, new char[Money.MAX_LENGTH]);
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.example.demo.model.responses;
+
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.OrderLine;
+
+public class OrderLineResponse {
+
+	private final ItemResponse item;
+
+	private final int quantity;
+
+	private final Money unitPrice;
+
+	private final Money subtotal;
+
+	public OrderLineResponse(ItemResponse item, int quantity, Money unitPrice, Money subtotal) {
+		this.item = item;
+		this.quantity = quantity;
+		this.unitPrice = unitPrice;
+		this.subtotal = subtotal;
+	}
+
+	public ItemResponse getItem() {
+		return item;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public Money getUnitPrice() {
+		return unitPrice;
+	}
+
+	public Money getSubtotal() {
+		return subtotal;
+	}
+
+	public static OrderLineResponse createFrom(OrderLine line) {
+		return new OrderLineResponse(ItemResponse.createFrom(line.getItem()), line.getQuantity(),
+				line.getUnitPrice(), line.getSubtotal());
+	}
+}
@@ -0,0 +1,117 @@
+package com.example.demo.model.responses;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.UserOrder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * An order copied out of the persistence context, so rendering it can't
+ * load its lines or user.
+ */
+@JsonSerialize(using = OrderResponse.Serializer.class)
+public class OrderResponse {
+
+	private final Long id;
+
+	private final String reference;
+
+	private final List<OrderLineResponse> lines;
+
+	private final UserResponse user;
+
+	private final Money total;
+
+	private final Instant createdAt;
+
+	public OrderResponse(Long id, String reference, List<OrderLineResponse> lines, UserResponse user, Money total,
+			Instant createdAt) {
+		this.id = id;
+		this.reference = reference;
+		this.lines = lines;
+		this.user = user;
+		this.total = total;
+		this.createdAt = createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getReference() {
+		return reference;
+	}
+
+	public List<OrderLineResponse> getLines() {
+		return lines;
+	}
+
+	public UserResponse getUser() {
+		return user;
+	}
+
+	public Money getTotal() {
+		return total;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public static OrderResponse createFrom(UserOrder order) {
+		List<OrderLineResponse> lines = new ArrayList<>(order.getLines().size());
+		for(OrderLine line : order.getLines()) {
+			lines.add(OrderLineResponse.createFrom(line));
+		}
+		return new OrderResponse(order.getId(), order.getReference(), lines,
+				UserResponse.createFrom(order.getUser()), order.getTotal(), order.getCreatedAt());
+	}
+
+	public static List<OrderResponse> createFrom(List<UserOrder> orders) {
+		List<OrderResponse> responses = new ArrayList<>(orders.size());
+		for(UserOrder order : orders) {
+			responses.add(createFrom(order));
+		}
+		return responses;
+	}
+
+	static final class Serializer extends StdSerializer<OrderResponse> {
+
+		Serializer() {
+			super(OrderResponse.class);
+		}
+
+		@Override
+		public void serialize(OrderResponse value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			char[] buffer = new char[Money.MAX_LENGTH];
+			generator.writeStartObject();
+			ResponseFields.writeId(generator, "id", value.id);
+			generator.writeStringField("reference", value.reference);
+			generator.writeArrayFieldStart("lines");
+			for(OrderLineResponse line : value.lines) {
+				generator.writeStartObject();
+				generator.writeFieldName("item");
+				ItemResponse.write(line.getItem(), generator, buffer);
+				generator.writeNumberField("quantity", line.getQuantity());
+				ResponseFields.writeMoney(generator, "unitPrice", line.getUnitPrice(), buffer);
+				ResponseFields.writeMoney(generator, "subtotal", line.getSubtotal(), buffer);
+				generator.writeEndObject();
+			}
+			generator.writeEndArray();
+			generator.writeFieldName("user");
+			UserResponse.write(value.user, generator);
+			ResponseFields.writeMoney(generator, "total", value.total, buffer);
+			// goes through the configured serializer, dates are formatted by application properties
+			provider.defaultSerializeField("createdAt", value.createdAt, generator);
+			generator.writeEndObject();
+		}
+	}
+}
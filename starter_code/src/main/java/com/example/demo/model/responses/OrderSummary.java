@@ -0,0 +1,58 @@
+package com.example.demo.model.responses;
+
+import java.time.Instant;
+
+import com.example.demo.model.persistence.Money;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One row of a user's order history, read straight from a projection query
+ * without loading the order's items or user.
+ */
+public class OrderSummary {
+
+	@JsonProperty
+	private final Long id;
+
+	@JsonProperty
+	private final String reference;
+
+	@JsonProperty
+	private final Money total;
+
+	// units ordered, summed over the order's lines
+	@JsonProperty
+	private final long itemCount;
+
+	@JsonProperty
+	private final Instant createdAt;
+
+	public OrderSummary(Long id, String reference, Money total, long itemCount, Instant createdAt) {
+		this.id = id;
+		this.reference = reference;
+		this.total = total;
+		this.itemCount = itemCount;
+		this.createdAt = createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getReference() {
+		return reference;
+	}
+
+	public Money getTotal() {
+		return total;
+	}
+
+	public long getItemCount() {
+		return itemCount;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+}
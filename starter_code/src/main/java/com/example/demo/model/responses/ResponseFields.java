@@ -0,0 +1,34 @@
+package com.example.demo.model.responses;
+
+import java.io.IOException;
+
+import com.example.demo.model.persistence.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+final class ResponseFields {
+
+	private ResponseFields() {
+	}
+
+	/**
+	 * Same output as Money's own serializer, formatted into {@code buffer}
+	 * instead of a new string per amount.
+	 */
+	static void writeMoney(JsonGenerator generator, String name, Money value, char[] buffer) throws IOException {
+		generator.writeFieldName(name);
+		if(value == null) {
+			generator.writeNull();
+		} else {
+			generator.writeRawValue(buffer, 0, value.format(buffer));
+		}
+	}
+
+	static void writeId(JsonGenerator generator, String name, Long value) throws IOException {
+		generator.writeFieldName(name);
+		if(value == null) {
+			generator.writeNull();
+		} else {
+			generator.writeNumber(value);
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.example.demo.model.responses;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.example.demo.model.persistence.Money;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Orders submitted since {@code since}, the start of the analytics window,
+ * and the items that sold the most units in it.
+ */
+public class SalesResponse {
+
+	@JsonProperty
+	private final Instant since;
+
+	@JsonProperty
+	private final long orders;
+
+	@JsonProperty
+	private final long units;
+
+	@JsonProperty
+	private final Money revenue;
+
+	@JsonProperty
+	private final List<TopSeller> topSellers;
+
+	public SalesResponse(Instant since, long orders, long units, Money revenue, List<TopSeller> topSellers) {
+		this.since = since;
+		this.orders = orders;
+		this.units = units;
+		this.revenue = revenue;
+		this.topSellers = topSellers;
+	}
+
+	public Instant getSince() {
+		return since;
+	}
+
+	public long getOrders() {
+		return orders;
+	}
+
+	public long getUnits() {
+		return units;
+	}
+
+	public Money getRevenue() {
+		return revenue;
+	}
+
+	public List<TopSeller> getTopSellers() {
+		return topSellers;
+	}
+
+	public static class TopSeller {
+
+		@JsonProperty
+		private final long itemId;
+
+		// null once the item is gone from the catalog
+		@JsonProperty
+		private final String name;
+
+		@JsonProperty
+		private final long units;
+
+		public TopSeller(long itemId, String name, long units) {
+			this.itemId = itemId;
+			this.name = name;
+			this.units = units;
+		}
+
+		public long getItemId() {
+			return itemId;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getUnits() {
+			return units;
+		}
+	}
+}
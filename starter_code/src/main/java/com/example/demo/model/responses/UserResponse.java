@@ -0,0 +1,57 @@
+package com.example.demo.model.responses;
+
+import java.io.IOException;
+
+import com.example.demo.model.persistence.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+@JsonSerialize(using = UserResponse.Serializer.class)
+public class UserResponse {
+
+	private final long id;
+
+	private final String username;
+
+	public UserResponse(long id, String username) {
+		this.id = id;
+		this.username = username;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public static UserResponse createFrom(User user) {
+		return user == null ? null : new UserResponse(user.getId(), user.getUsername());
+	}
+
+	static void write(UserResponse value, JsonGenerator generator) throws IOException {
+		if(value == null) {
+			generator.writeNull();
+			return;
+		}
+		generator.writeStartObject();
+		generator.writeNumberField("id", value.id);
+		generator.writeStringField("username", value.username);
+		generator.writeEndObject();
+	}
+
+	static final class Serializer extends StdSerializer<UserResponse> {
+
+		Serializer() {
+			super(UserResponse.class);
+		}
+
+		@Override
+		public void serialize(UserResponse value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			write(value, generator);
+		}
+	}
+}
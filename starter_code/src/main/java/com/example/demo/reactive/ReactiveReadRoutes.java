@@ -0,0 +1,167 @@
+package com.example.demo.reactive;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.ItemResponse;
+import com.example.demo.model.responses.OrderResponse;
+import com.example.demo.security.JWTTokenVerifier;
+import com.example.demo.security.SecurityConstants;
+import com.example.demo.services.ItemCatalog;
+import com.example.demo.services.OrderService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking counterparts of {@code GET /api/item} and
+ * {@code GET /api/order/history/{username}}, served by {@link ReactiveReadServer}.
+ * Results go out as NDJSON a page of {@code reactive.page-size} at a time, and
+ * the next page is only read once the client has taken the previous one, so
+ * a slow reader holds a page of memory rather than a thread. The reads still
+ * go through JPA, on {@code reactive.jdbc-threads} threads kept off the
+ * event loop.
+ *
+ * Unlike the MVC endpoints an empty catalog or history is an empty 200, the
+ * status goes out before the first page is read.
+ */
+@Component
+public class ReactiveReadRoutes implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReactiveReadRoutes.class);
+
+	static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+	private static final long DONE = Long.MIN_VALUE;
+
+	private final ItemCatalog itemCatalog;
+	private final OrderService orderService;
+	private final UserRepository userRepository;
+	private final JWTTokenVerifier tokenVerifier;
+	private final ObjectWriter writer;
+	private final int pageSize;
+	private final Scheduler jdbcScheduler;
+
+	public ReactiveReadRoutes(ItemCatalog itemCatalog, OrderService orderService, UserRepository userRepository,
+			JWTTokenVerifier tokenVerifier, ObjectMapper objectMapper,
+			@Value("${reactive.page-size:100}") int pageSize,
+			@Value("${reactive.jdbc-threads:10}") int jdbcThreads) {
+		this.itemCatalog = itemCatalog;
+		this.orderService = orderService;
+		this.userRepository = userRepository;
+		this.tokenVerifier = tokenVerifier;
+		this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		this.pageSize = pageSize;
+		this.jdbcScheduler = Schedulers.newParallel("reactive-jdbc", jdbcThreads, true);
+	}
+
+	public RouterFunction<ServerResponse> routes() {
+		return RouterFunctions.route(GET("/api/item"), request -> ndjson(items()))
+				.andRoute(GET("/api/order/history/{username}"), this::orderHistory)
+				.filter(this::authenticated);
+	}
+
+	Flux<ItemResponse> items() {
+		return pages(0L, afterId -> itemCatalog.findPage(afterId, pageSize), Item::getId)
+				.map(ItemResponse::createFrom);
+	}
+
+	Flux<OrderResponse> orderHistory(long userId) {
+		return pages(Long.MAX_VALUE, beforeId -> orderService.findHistoryPage(userId, beforeId, pageSize),
+				OrderResponse::getId);
+	}
+
+	@Override
+	public void destroy() {
+		jdbcScheduler.dispose();
+	}
+
+	private Mono<ServerResponse> orderHistory(ServerRequest request) {
+		String username = request.pathVariable("username");
+		return Mono.fromCallable(() -> userRepository.findByUsername(username))
+				.subscribeOn(jdbcScheduler)
+				.flatMap(user -> ndjson(orderHistory(user.getId())))
+				.switchIfEmpty(Mono.defer(() -> {
+					logger.warn("User {} couldn't be found", username);
+					return ServerResponse.notFound().build();
+				}));
+	}
+
+	/**
+	 * Keyset pages read on the JDBC threads as demand arrives, one page
+	 * prefetched. A short page is the last one.
+	 */
+	private <T> Flux<T> pages(long start, LongFunction<List<T>> page, ToLongFunction<T> key) {
+		return Flux.<List<T>, Long>generate(() -> start, (cursor, sink) -> {
+			List<T> next = cursor == DONE ? null : page.apply(cursor);
+			if(next == null || next.isEmpty()) {
+				sink.complete();
+				return DONE;
+			}
+			sink.next(next);
+			return next.size() < pageSize ? DONE : key.applyAsLong(next.get(next.size() - 1));
+		}).subscribeOn(jdbcScheduler).flatMapIterable(values -> values, 1);
+	}
+
+	private Mono<ServerResponse> ndjson(Flux<?> values) {
+		return ServerResponse.ok().contentType(NDJSON).body((response, context) ->
+				response.writeWith(values.map(value -> line(response.bufferFactory(), value))));
+	}
+
+	private DataBuffer line(DataBufferFactory bufferFactory, Object value) {
+		DataBuffer buffer = bufferFactory.allocateBuffer();
+		try {
+			OutputStream out = buffer.asOutputStream();
+			writer.writeValue(out, value);
+			out.write('\n');
+			return buffer;
+		} catch (IOException e) {
+			DataBufferUtils.release(buffer);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private Mono<ServerResponse> authenticated(ServerRequest request, HandlerFunction<ServerResponse> next) {
+		String header = request.headers().asHttpHeaders().getFirst(SecurityConstants.HEADER_STRING);
+		if(header != null && header.startsWith(SecurityConstants.TOKEN_PREFIX)) {
+			try {
+				if(tokenVerifier.verify(header.substring(SecurityConstants.TOKEN_PREFIX.length())) != null) {
+					return next.handle(request);
+				}
+			} catch (JWTVerificationException e) {
+				logger.warn("Rejected a token: {}", e.getMessage());
+			}
+		}
+		return ServerResponse.status(HttpStatus.UNAUTHORIZED).build();
+	}
+}
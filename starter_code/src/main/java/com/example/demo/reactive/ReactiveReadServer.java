@@ -0,0 +1,66 @@
+package com.example.demo.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.context.ServletWebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Serves {@link ReactiveReadRoutes} from a Reactor Netty server on
+ * {@code reactive.server.port}, next to Tomcat. It starts once the servlet
+ * server is up, so tests without a web server don't start it either, and
+ * {@code -1} leaves it off.
+ */
+@Component
+public class ReactiveReadServer implements ApplicationListener<ServletWebServerInitializedEvent>, DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReactiveReadServer.class);
+
+	private final ReactiveReadRoutes routes;
+	private final String address;
+	private final int port;
+
+	private DisposableServer server;
+
+	public ReactiveReadServer(ReactiveReadRoutes routes,
+			@Value("${reactive.server.address:0.0.0.0}") String address,
+			@Value("${reactive.server.port:-1}") int port) {
+		this.routes = routes;
+		this.address = address;
+		this.port = port;
+	}
+
+	@Override
+	public synchronized void onApplicationEvent(ServletWebServerInitializedEvent event) {
+		// the management server starts in a child context with its own namespace
+		if(port < 0 || server != null || event.getApplicationContext().getServerNamespace() != null) {
+			return;
+		}
+		server = HttpServer.create()
+				.host(address)
+				.port(port)
+				.handle(new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(routes.routes())))
+				.bindNow();
+		logger.info("Reactive read API started on port {}", server.port());
+	}
+
+	public synchronized int getPort() {
+		return server == null ? -1 : server.port();
+	}
+
+	@Override
+	public synchronized void destroy() {
+		if(server != null) {
+			server.disposeNow();
+			server = null;
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.example.demo.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt encoder that runs hashing on its own small pool with a bounded queue.
+ * The pool caps the CPU that hashing takes: a login storm runs at most
+ * {@code threads} hashes at once and is rejected right away once the queue
+ * is full, so other requests still get the CPU.
+ *
+ * It doesn't free request threads. A caller waits for its hash, up to the
+ * timeout, while its task is queued and while it runs; size the timeout for
+ * a full queue, queue capacity / threads hashes, or callers at its end time
+ * out. A hash that is already running can't be interrupted and finishes
+ * anyway, only a hash still queued is dropped when its caller gives up.
+ */
+public class BoundedBCryptPasswordEncoder extends BCryptPasswordEncoder implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public BoundedBCryptPasswordEncoder(int strength, int threads, int queueCapacity, long timeoutMillis) {
+        super(strength);
+        this.timeoutMillis = timeoutMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> super.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> super.matches(rawPassword, encodedPassword));
+    }
+
+    public int getQueuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new AuthenticationServiceException("Too many password hashing requests in flight", e);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // skips the hash if it is still queued, BCrypt doesn't check for interrupts
+            future.cancel(false);
+            throw new AuthenticationServiceException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new AuthenticationServiceException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -14,14 +14,14 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.stereotype.Component;
 
-import com.auth0.jwt.JWT;
-import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
-
 @Component
 public class JWTAuthenticationVerficationFilter extends BasicAuthenticationFilter {
 
-    public JWTAuthenticationVerficationFilter(AuthenticationManager authManager) {
+    private final JWTTokenVerifier tokenVerifier;
+
+    public JWTAuthenticationVerficationFilter(AuthenticationManager authManager, JWTTokenVerifier tokenVerifier) {
         super(authManager);
+        this.tokenVerifier = tokenVerifier;
     }
 
     @Override
@@ -34,22 +34,16 @@ public class JWTAuthenticationVerficationFilter extends BasicAuthenticationFilte
             return;
         }
 
-        UsernamePasswordAuthenticationToken authentication = getAuthentication(req);
+        UsernamePasswordAuthenticationToken authentication = getAuthentication(header);
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         chain.doFilter(req, res);
     }
 
-    private UsernamePasswordAuthenticationToken getAuthentication(HttpServletRequest req) {
-        String token = req.getHeader(SecurityConstants.HEADER_STRING);
-        if (token != null) {
-            String user = JWT.require(HMAC512(SecurityConstants.SECRET.getBytes())).build()
-                    .verify(token.replace(SecurityConstants.TOKEN_PREFIX, ""))
-                    .getSubject();
-            if (user != null) {
-                return new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
-            }
-            return null;
+    private UsernamePasswordAuthenticationToken getAuthentication(String header) {
+        String user = tokenVerifier.verify(header.substring(SecurityConstants.TOKEN_PREFIX.length()));
+        if (user != null) {
+            return new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
         }
         return null;
     }
@@ -0,0 +1,114 @@
+package com.example.demo.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.cache.BoundedCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+
+/**
+ * Verifies bearer tokens with a single shared verifier and remembers the
+ * subject of tokens that already passed verification until they expire, so
+ * repeat requests with the same token skip decoding and the HMAC check.
+ * Each call is timed as {@code jwt.verify}, tagged with how it ended.
+ *
+ * Tokens are cached under their SHA-256 digest, so live credentials aren't
+ * kept in the heap, or in a heap dump, in full.
+ */
+@Component
+public class JWTTokenVerifier {
+
+    static final Algorithm ALGORITHM = HMAC512(SecurityConstants.SECRET.getBytes());
+
+    private static final JWTVerifier VERIFIER = JWT.require(ALGORITHM).build();
+
+    private static final MessageDigest SHA_256;
+
+    static {
+        try {
+            SHA_256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final BoundedCache<ByteBuffer, String> verifiedTokens;
+
+    private final Timer cachedTimer;
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
+
+    public JWTTokenVerifier(@Value("${security.jwt.cache.max-size:10000}") int maxSize, MeterRegistry meterRegistry) {
+        this.verifiedTokens = new BoundedCache<>(maxSize, SecurityConstants.EXPIRATION_TIME);
+        this.cachedTimer = timer(meterRegistry, "cached");
+        this.verifiedTimer = timer(meterRegistry, "verified");
+        this.rejectedTimer = timer(meterRegistry, "rejected");
+    }
+
+    /**
+     * @return the token subject, or {@code null} when the token has none
+     * @throws JWTVerificationException when the token is invalid or expired
+     */
+    public String verify(String token) {
+        long start = System.nanoTime();
+        ByteBuffer key = digest(token);
+        String subject = verifiedTokens.get(key);
+        if (subject != null) {
+            cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return subject;
+        }
+
+        DecodedJWT jwt;
+        try {
+            jwt = VERIFIER.verify(token);
+        } catch (JWTVerificationException e) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        subject = jwt.getSubject();
+
+        Date expiresAt = jwt.getExpiresAt();
+        if (subject != null && expiresAt != null) {
+            verifiedTokens.put(key, subject, expiresAt.getTime());
+        }
+        verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return subject;
+    }
+
+    public BoundedCache<?, ?> getVerifiedTokens() {
+        return verifiedTokens;
+    }
+
+    static ByteBuffer digest(String token) {
+        try {
+            // a clone is cheaper than looking the algorithm up again, and isn't shared
+            MessageDigest sha256 = (MessageDigest) SHA_256.clone();
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 can't be cloned", e);
+        }
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("jwt.verify")
+                .description("Bearer token verification")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.security;
+
+import java.util.Collections;
+
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * The principal of an authenticated user, with the user's id, so callers
+ * can answer with the user without loading it again.
+ */
+public class UserAccount extends User {
+
+    private final long id;
+
+    public UserAccount(long id, String username, String passwordHash) {
+        super(username, passwordHash, Collections.emptyList());
+        this.id = id;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.security;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.demo.model.persistence.User;
+
+/**
+ * JPA entity listener dropping cached credentials when a user's password
+ * changes or the user is deleted.
+ */
+public class UserChangeListener {
+
+    @Autowired
+    private ObjectProvider<UserDetailsServiceImpl> userDetailsService;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        if (userDetailsService != null) {
+            userDetailsService.ifAvailable(service -> service.evict(user.getUsername()));
+        }
+    }
+}
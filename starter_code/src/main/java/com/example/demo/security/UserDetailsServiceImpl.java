@@ -1,13 +1,15 @@
 package com.example.demo.security;
 
-import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.cache.BoundedCache;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.UserRepository;
 
@@ -17,14 +19,34 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    private final BoundedCache<String, UserAccount> accounts;
+
+    public UserDetailsServiceImpl(@Value("${security.user-cache.max-size:10000}") int maxSize,
+                                  @Value("${security.user-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.accounts = new BoundedCache<>(maxSize, TimeUnit.SECONDS.toMillis(ttlSeconds));
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        User user = userRepository.findByUsername(username);
+        UserAccount account = accounts.get(username, key -> {
+            User user = userRepository.findByUsername(key);
+            return user == null ? null : new UserAccount(user.getId(), user.getUsername(), user.getPassword());
+        });
 
-        if (user == null) {
+        if (account == null) {
             throw new UsernameNotFoundException(username);
         }
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), Collections.emptyList());
+        // a fresh instance every time: the authentication manager erases the
+        // credentials of the principal it hands back
+        return new UserAccount(account.getId(), username, account.getPassword());
+    }
+
+    public void evict(String username) {
+        accounts.invalidate(username);
+    }
+
+    public BoundedCache<String, UserAccount> getAccounts() {
+        return accounts;
     }
 }
@@ -0,0 +1,32 @@
+package com.example.demo.services;
+
+import java.util.List;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.requests.CartOperation;
+
+/**
+ * Applies cart changes for {@link com.example.demo.controllers.CartController}.
+ * Picked with {@code cart.engine}: {@code database} (default) writes every
+ * change through to the database, {@code memory} keeps active carts in process
+ * and persists them behind the requests. Methods return {@code null} when the
+ * user or the item can't be found.
+ */
+public interface CartEngine {
+
+	Cart addToCart(String username, long itemId, int quantity);
+
+	Cart removeFromCart(String username, long itemId, int quantity);
+
+	/**
+	 * Applies {@code operations} in order as one change: either all of them
+	 * take effect or, when an item is unknown, none does.
+	 */
+	Cart modifyCart(String username, List<CartOperation> operations);
+
+	/**
+	 * Makes sure the database holds the latest state of the user's cart, e.g.
+	 * before an order is built from it.
+	 */
+	void flush(String username);
+}
@@ -0,0 +1,192 @@
+package com.example.demo.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of cart line changes, split into numbered segments. Each
+ * record holds the absolute quantity of one line, so replaying a record that
+ * already reached the database is harmless. Segments are rolled before a
+ * flush and deleted once everything they describe has been persisted.
+ */
+public class CartJournal implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(CartJournal.class);
+
+	private static final String PREFIX = "segment-";
+	private static final String SUFFIX = ".log";
+
+	public interface Entry {
+		void apply(String username, long itemId, int quantity, long unitPriceMinorUnits);
+	}
+
+	private final Path directory;
+	private final boolean fsync;
+	// not synchronized: a virtual thread that blocks on the disk inside a monitor pins its carrier
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private long segment;
+	private FileOutputStream file;
+	private DataOutputStream out;
+
+	public CartJournal(Path directory, boolean fsync) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		this.fsync = fsync;
+
+		List<Long> segments = segments();
+		this.segment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+		open(segment + 1);
+	}
+
+	/**
+	 * Writes one record through to the OS, and to the disk too when the
+	 * journal was opened with {@code fsync}.
+	 */
+	public void append(String username, long itemId, int quantity, long unitPriceMinorUnits)
+			throws IOException {
+		lock.lock();
+		try {
+			write(out, username, itemId, quantity, unitPriceMinorUnits);
+			out.flush();
+			if(fsync) {
+				file.getFD().sync();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Writes one record per line of a bulk change, handed to the OS in a single
+	 * write so a crashed process leaves all of them or none.
+	 */
+	public void append(String username, long[] itemIds, int[] quantities, long[] unitPricesMinorUnits)
+			throws IOException {
+		lock.lock();
+		try {
+			ByteArrayOutputStream batch = new ByteArrayOutputStream(itemIds.length * (username.length() + 22));
+			DataOutputStream records = new DataOutputStream(batch);
+			for(int i = 0; i < itemIds.length; i++) {
+				write(records, username, itemIds[i], quantities[i], unitPricesMinorUnits[i]);
+			}
+			out.flush();
+			batch.writeTo(file);
+			if(fsync) {
+				file.getFD().sync();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Seals the current segment and starts a new one.
+	 *
+	 * @return the number of the sealed segment
+	 */
+	public long roll() throws IOException {
+		lock.lock();
+		try {
+			long sealed = segment;
+			out.close();
+			open(sealed + 1);
+			return sealed;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Deletes the sealed segments up to and including {@code sealed}.
+	 */
+	public void deleteUpTo(long sealed) throws IOException {
+		for(long number : segments()) {
+			if(number <= sealed) {
+				Files.deleteIfExists(path(number));
+			}
+		}
+	}
+
+	/**
+	 * Hands every record, oldest first, to {@code entry}. A record cut short
+	 * by a crash ends its segment.
+	 */
+	public void replay(Entry entry) throws IOException {
+		for(long number : segments()) {
+			try (InputStream stream = Files.newInputStream(path(number));
+				 DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+				while (true) {
+					String username;
+					long itemId;
+					int quantity;
+					long unitPrice;
+					try {
+						username = in.readUTF();
+						itemId = in.readLong();
+						quantity = in.readInt();
+						unitPrice = in.readLong();
+					} catch (EOFException e) {
+						break;
+					}
+					entry.apply(username, itemId, quantity, unitPrice);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		lock.lock();
+		try {
+			out.close();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static void write(DataOutputStream out, String username, long itemId, int quantity,
+			long unitPriceMinorUnits) throws IOException {
+		out.writeUTF(username);
+		out.writeLong(itemId);
+		out.writeInt(quantity);
+		out.writeLong(unitPriceMinorUnits);
+	}
+
+	private void open(long number) throws IOException {
+		segment = number;
+		file = new FileOutputStream(path(number).toFile(), true);
+		out = new DataOutputStream(new BufferedOutputStream(file));
+		logger.debug("Writing cart journal segment {}", path(number));
+	}
+
+	private Path path(long number) {
+		return directory.resolve(String.format("%s%010d%s", PREFIX, number, SUFFIX));
+	}
+
+	private List<Long> segments() throws IOException {
+		List<Long> numbers = new ArrayList<>();
+		try (Stream<Path> files = Files.list(directory)) {
+			files.map(path -> path.getFileName().toString())
+					.filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+					.forEach(name -> numbers.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()))));
+		}
+		numbers.sort(null);
+		return numbers;
+	}
+}
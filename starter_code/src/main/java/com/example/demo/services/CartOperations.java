@@ -0,0 +1,42 @@
+package com.example.demo.services;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.requests.CartOperation;
+
+/**
+ * Replays a bulk change on a cart the way the single add and remove calls
+ * would have changed it one after the other.
+ */
+final class CartOperations {
+
+	private CartOperations() {
+	}
+
+	static Set<Long> itemIds(List<CartOperation> operations) {
+		Set<Long> itemIds = new LinkedHashSet<>();
+		for(CartOperation operation : operations) {
+			itemIds.add(operation.getItemId());
+		}
+		return itemIds;
+	}
+
+	/**
+	 * @param items every item the operations refer to, by id
+	 */
+	static void apply(Cart cart, List<CartOperation> operations, Map<Long, Item> items) {
+		for(CartOperation operation : operations) {
+			Item item = items.get(operation.getItemId());
+			if(operation.getAction() == CartOperation.Action.ADD) {
+				cart.addItem(item, operation.getQuantity());
+			} else {
+				cart.removeItem(item, operation.getQuantity());
+			}
+		}
+	}
+}
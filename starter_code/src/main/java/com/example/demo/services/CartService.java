@@ -0,0 +1,275 @@
+package com.example.demo.services;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.repositories.CartLineRepository;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CartOperation;
+
+/**
+ * Applies cart deltas with targeted statements against the affected line and
+ * the cart total, instead of loading and re-saving the whole cart graph.
+ * This is the default {@link CartEngine}.
+ *
+ * Each change runs in its own transaction and commits only if the cart
+ * version it started from is still current. A concurrent writer, or a
+ * concurrent insert of the same line, rolls it back and it is retried up to
+ * {@code cart.optimistic.max-attempts} times, after a jittered exponential
+ * backoff, before the conflict is thrown.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.engine", havingValue = "database", matchIfMissing = true)
+public class CartService implements CartEngine {
+
+	private static final Logger logger = LoggerFactory.getLogger(CartService.class);
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private CartLineRepository cartLineRepository;
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Value("${cart.optimistic.max-attempts:5}")
+	private int maxAttempts = 5;
+
+	@Value("${cart.optimistic.backoff-millis:2}")
+	private long backoffMillis = 2;
+
+	private final LongAdder conflicts = new LongAdder();
+	private final LongAdder exhaustedRetries = new LongAdder();
+
+	/**
+	 * @throws OptimisticLockingFailureException when every attempt lost to a concurrent change
+	 */
+	@Override
+	public Cart addToCart(String username, long itemId, int quantity) {
+		return withRetry(() -> add(username, itemId, quantity));
+	}
+
+	/**
+	 * @throws OptimisticLockingFailureException when every attempt lost to a concurrent change
+	 */
+	@Override
+	public Cart removeFromCart(String username, long itemId, int quantity) {
+		return withRetry(() -> remove(username, itemId, quantity));
+	}
+
+	/**
+	 * Reads all the items and affected lines in one query each, and moves the
+	 * total once, however many operations there are.
+	 *
+	 * @throws OptimisticLockingFailureException when every attempt lost to a concurrent change
+	 */
+	@Override
+	public Cart modifyCart(String username, List<CartOperation> operations) {
+		return withRetry(() -> modify(username, operations));
+	}
+
+	/**
+	 * Every change is already committed when it returns.
+	 */
+	@Override
+	public void flush(String username) {
+	}
+
+	public long getConflictCount() {
+		return conflicts.sum();
+	}
+
+	public long getExhaustedRetryCount() {
+		return exhaustedRetries.sum();
+	}
+
+	private Cart withRetry(Supplier<Cart> change) {
+		for(int attempt = 1; ; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> change.get());
+			} catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+				conflicts.increment();
+				if(attempt >= maxAttempts) {
+					exhaustedRetries.increment();
+					logger.warn("Cart change still conflicting after {} attempts", attempt);
+					throw e instanceof OptimisticLockingFailureException
+							? (OptimisticLockingFailureException) e
+							: new ObjectOptimisticLockingFailureException(e.getMessage(), e);
+				}
+				logger.debug("Cart change conflicted on attempt {}, retrying", attempt);
+				backOff(attempt, e);
+			}
+		}
+	}
+
+	private void backOff(int attempt, RuntimeException conflict) {
+		if(backoffMillis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis << Math.min(attempt, 10)));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw conflict;
+		}
+	}
+
+	private Cart add(String username, long itemId, int quantity) {
+
+		Long cartId = userRepository.findCartIdByUsername(username);
+
+		if(cartId == null) {
+			logger.warn("User {} couldn't be found", username);
+			return null;
+		}
+
+		long version = cartRepository.findVersionById(cartId);
+		CartLine line = cartLineRepository.findByCartIdAndItemId(cartId, itemId);
+
+		if(line == null) {
+			Optional<Item> item = itemRepository.findById(itemId);
+
+			if(!item.isPresent()) {
+				logger.warn("Item {} couldn't be found", itemId);
+				return null;
+			}
+			line = CartLine.CreateCartLine(cartRepository.getOne(cartId), item.get(), quantity);
+			cartLineRepository.save(line);
+		} else {
+			line.setQuantity(line.getQuantity() + quantity);
+		}
+
+		compareAndIncrementTotal(cartId, version, line.getUnitPrice().times(quantity));
+
+		return cartRepository.findById(cartId).orElse(null);
+	}
+
+	private Cart remove(String username, long itemId, int quantity) {
+
+		Long cartId = userRepository.findCartIdByUsername(username);
+
+		if(cartId == null) {
+			logger.warn("User {} couldn't be found", username);
+			return null;
+		}
+
+		long version = cartRepository.findVersionById(cartId);
+		CartLine line = cartLineRepository.findByCartIdAndItemId(cartId, itemId);
+
+		if(line == null) {
+			if(!itemRepository.existsById(itemId)) {
+				logger.warn("Item {} couldn't be found", itemId);
+				return null;
+			}
+			return cartRepository.findById(cartId).orElse(null);
+		}
+
+		int removed = Math.min(quantity, line.getQuantity());
+
+		if(removed == line.getQuantity()) {
+			cartLineRepository.delete(line);
+		} else {
+			line.setQuantity(line.getQuantity() - removed);
+		}
+
+		compareAndIncrementTotal(cartId, version, line.getUnitPrice().times(-removed));
+
+		return cartRepository.findById(cartId).orElse(null);
+	}
+
+	private Cart modify(String username, List<CartOperation> operations) {
+
+		Long cartId = userRepository.findCartIdByUsername(username);
+
+		if(cartId == null) {
+			logger.warn("User {} couldn't be found", username);
+			return null;
+		}
+
+		long version = cartRepository.findVersionById(cartId);
+		Set<Long> itemIds = CartOperations.itemIds(operations);
+
+		// read before the lines, so loading them finds their items in the persistence context
+		Map<Long, Item> items = new HashMap<>();
+		itemRepository.findAllById(itemIds).forEach(item -> items.put(item.getId(), item));
+
+		if(items.size() < itemIds.size()) {
+			itemIds.removeAll(items.keySet());
+			logger.warn("Items {} couldn't be found", itemIds);
+			return null;
+		}
+
+		// replay the operations on a detached copy of the affected lines, then write the difference
+		Map<Long, CartLine> lines = new HashMap<>();
+		Cart changed = new Cart();
+		for(CartLine line : cartLineRepository.findByCartIdAndItemIdIn(cartId, itemIds)) {
+			lines.put(line.getItemId(), line);
+			CartLine copy = CartLine.CreateCartLine(changed, line.getItem(), line.getQuantity());
+			copy.setUnitPrice(line.getUnitPrice());
+			changed.getLines().put(line.getItemId(), copy);
+		}
+		changed.recalculateTotal();
+		Money before = changed.getTotal();
+
+		CartOperations.apply(changed, operations, items);
+
+		for(Long itemId : itemIds) {
+			CartLine line = lines.get(itemId);
+			CartLine result = changed.getLines().get(itemId);
+
+			if(result == null) {
+				if(line != null) {
+					cartLineRepository.delete(line);
+				}
+			} else if(line == null) {
+				line = CartLine.CreateCartLine(cartRepository.getOne(cartId), items.get(itemId), result.getQuantity());
+				line.setUnitPrice(result.getUnitPrice());
+				cartLineRepository.save(line);
+			} else {
+				// a line emptied and added again within the batch takes the current price
+				line.setQuantity(result.getQuantity());
+				line.setUnitPrice(result.getUnitPrice());
+			}
+		}
+
+		compareAndIncrementTotal(cartId, version, changed.getTotal().minus(before));
+
+		return cartRepository.findById(cartId).orElse(null);
+	}
+
+	private void compareAndIncrementTotal(Long cartId, long version, Money amount) {
+		if(cartRepository.incrementTotal(cartId, version, amount.getMinorUnits()) == 0) {
+			throw new ObjectOptimisticLockingFailureException(Cart.class, cartId);
+		}
+	}
+}
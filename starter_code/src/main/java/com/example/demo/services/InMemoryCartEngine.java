@@ -0,0 +1,487 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CartOperation;
+
+/**
+ * {@link CartEngine} that keeps active carts in memory, keyed by username.
+ * Changes to one user's cart are serialized on one of a fixed set of lock
+ * stripes, so users on different stripes never wait on each other. Every
+ * change is written to a {@link CartJournal} before it is applied, and dirty
+ * carts are persisted in batches every {@code cart.memory.flush-interval-millis},
+ * on {@link #flush(String)} and at shutdown. Journal segments left behind by a
+ * crash are replayed on startup.
+ *
+ * Active with {@code cart.engine=memory}. Only one instance may own the
+ * database carts, the engine doesn't see changes made by anybody else.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.engine", havingValue = "memory")
+public class InMemoryCartEngine implements CartEngine, DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(InMemoryCartEngine.class);
+
+	private static final class ActiveCart {
+		// replaced whole by bulk changes, guarded by the stripe
+		Cart cart;
+		volatile long touchedAt = System.currentTimeMillis();
+
+		ActiveCart(Cart cart) {
+			this.cart = cart;
+		}
+	}
+
+	private final UserRepository userRepository;
+	private final CartRepository cartRepository;
+	private final ItemCatalog itemCatalog;
+	private final TransactionTemplate transactionTemplate;
+	private final CartJournal journal;
+	private final int batchSize;
+	private final long idleMillis;
+
+	// held across journal writes and cart loads, so locks rather than monitors, see CartJournal
+	private final ReentrantLock[] stripes;
+	private final Map<String, ActiveCart> carts = new ConcurrentHashMap<>();
+	private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+	private final ReentrantLock flushLock = new ReentrantLock();
+	private final CountDownLatch recovered = new CountDownLatch(1);
+
+	private final LongAdder flushedCarts = new LongAdder();
+	private final LongAdder failedFlushes = new LongAdder();
+
+	public InMemoryCartEngine(UserRepository userRepository, CartRepository cartRepository,
+			ItemCatalog itemCatalog, TransactionTemplate transactionTemplate,
+			@Value("${cart.memory.journal-dir:cart-journal}") String journalDir,
+			@Value("${cart.memory.journal-fsync:false}") boolean fsync,
+			@Value("${cart.memory.stripes:64}") int stripeCount,
+			@Value("${cart.memory.flush-batch-size:100}") int batchSize,
+			@Value("${cart.memory.idle-seconds:600}") long idleSeconds) {
+		this.userRepository = userRepository;
+		this.cartRepository = cartRepository;
+		this.itemCatalog = itemCatalog;
+		this.transactionTemplate = transactionTemplate;
+		this.batchSize = Math.max(1, batchSize);
+		this.idleMillis = TimeUnit.SECONDS.toMillis(idleSeconds);
+
+		this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+		for(int i = 0; i < stripes.length; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+
+		try {
+			this.journal = new CartJournal(Paths.get(journalDir), fsync);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Couldn't open the cart journal in " + journalDir, e);
+		}
+	}
+
+	/**
+	 * Replays the journal left by the previous run and persists the result.
+	 * Cart changes wait until this is done.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void recover() throws IOException {
+		if(recovered.getCount() == 0) {
+			return;
+		}
+		Set<String> replayed = new HashSet<>();
+		try {
+			journal.replay((username, itemId, quantity, unitPrice) -> {
+				ActiveCart active = activeCart(username);
+				if(active != null && setQuantity(active.cart, itemId, quantity, Money.ofMinor(unitPrice))) {
+					replayed.add(username);
+				}
+			});
+			for(String username : replayed) {
+				carts.get(username).cart.recalculateTotal();
+				dirty.add(username);
+			}
+		} finally {
+			recovered.countDown();
+		}
+		if(!replayed.isEmpty()) {
+			logger.info("Replayed the cart journal for {} users", replayed.size());
+			flushDirty();
+		}
+	}
+
+	@Override
+	public Cart addToCart(String username, long itemId, int quantity) {
+		awaitRecovery();
+		ReentrantLock stripe = stripe(username);
+		stripe.lock();
+		try {
+			ActiveCart active = activeCart(username);
+			if(active == null) {
+				logger.warn("User {} couldn't be found", username);
+				return null;
+			}
+
+			Cart cart = active.cart;
+			CartLine line = cart.getLines().get(itemId);
+			Item item = line != null ? line.getItem() : itemCatalog.findById(itemId).orElse(null);
+			if(item == null) {
+				logger.warn("Item {} couldn't be found", itemId);
+				return null;
+			}
+
+			int current = line == null ? 0 : line.getQuantity();
+			Money unitPrice = line == null ? item.getPrice() : line.getUnitPrice();
+			log(username, itemId, Math.addExact(current, quantity), unitPrice);
+
+			cart.addItem(item, quantity);
+			touch(username, active);
+			return copyOf(cart);
+		} finally {
+			stripe.unlock();
+		}
+	}
+
+	@Override
+	public Cart removeFromCart(String username, long itemId, int quantity) {
+		awaitRecovery();
+		ReentrantLock stripe = stripe(username);
+		stripe.lock();
+		try {
+			ActiveCart active = activeCart(username);
+			if(active == null) {
+				logger.warn("User {} couldn't be found", username);
+				return null;
+			}
+
+			Cart cart = active.cart;
+			CartLine line = cart.getLines().get(itemId);
+			if(line == null) {
+				if(!itemCatalog.findById(itemId).isPresent()) {
+					logger.warn("Item {} couldn't be found", itemId);
+					return null;
+				}
+				return copyOf(cart);
+			}
+
+			log(username, itemId, Math.max(0, line.getQuantity() - quantity), line.getUnitPrice());
+
+			cart.removeItem(line.getItem(), quantity);
+			touch(username, active);
+			return copyOf(cart);
+		} finally {
+			stripe.unlock();
+		}
+	}
+
+	@Override
+	public Cart modifyCart(String username, List<CartOperation> operations) {
+		awaitRecovery();
+		ReentrantLock stripe = stripe(username);
+		stripe.lock();
+		try {
+			ActiveCart active = activeCart(username);
+			if(active == null) {
+				logger.warn("User {} couldn't be found", username);
+				return null;
+			}
+
+			Set<Long> itemIds = CartOperations.itemIds(operations);
+			Map<Long, Item> items = itemCatalog.findAllById(itemIds);
+			if(items.size() < itemIds.size()) {
+				itemIds.removeAll(items.keySet());
+				logger.warn("Items {} couldn't be found", itemIds);
+				return null;
+			}
+
+			Cart changed = copyOf(active.cart);
+			CartOperations.apply(changed, operations, items);
+
+			long[] ids = new long[itemIds.size()];
+			int[] quantities = new int[ids.length];
+			long[] unitPrices = new long[ids.length];
+			int i = 0;
+			for(Long itemId : itemIds) {
+				CartLine line = changed.getLines().get(itemId);
+				ids[i] = itemId;
+				quantities[i] = line == null ? 0 : line.getQuantity();
+				unitPrices[i] = (line == null ? items.get(itemId).getPrice() : line.getUnitPrice()).getMinorUnits();
+				i++;
+			}
+			try {
+				journal.append(username, ids, quantities, unitPrices);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Couldn't write the cart journal", e);
+			}
+
+			active.cart = changed;
+			touch(username, active);
+			return copyOf(changed);
+		} finally {
+			stripe.unlock();
+		}
+	}
+
+	@Override
+	public void flush(String username) {
+		awaitRecovery();
+		flushLock.lock();
+		try {
+			Cart snapshot;
+			ReentrantLock stripe = stripe(username);
+			stripe.lock();
+			try {
+				if(!dirty.remove(username)) {
+					return;
+				}
+				snapshot = copyOf(carts.get(username).cart);
+			} finally {
+				stripe.unlock();
+			}
+			try {
+				persist(Collections.singletonList(snapshot));
+			} catch (RuntimeException e) {
+				dirty.add(username);
+				throw e;
+			}
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * Persists every dirty cart, {@code cart.memory.flush-batch-size} carts per
+	 * transaction, then drops the journal segments that are now covered and
+	 * evicts carts that have been idle for {@code cart.memory.idle-seconds}.
+	 */
+	@Scheduled(fixedDelayString = "${cart.memory.flush-interval-millis:1000}")
+	public void flushDirty() {
+		if(recovered.getCount() > 0) {
+			return;
+		}
+		flushLock.lock();
+		try {
+			long sealed = journal.roll();
+
+			// changes logged to the sealed segment finish before their stripe is released
+			for(ReentrantLock stripe : stripes) {
+				stripe.lock();
+				stripe.unlock();
+			}
+
+			List<String> usernames = new ArrayList<>(dirty);
+			dirty.removeAll(usernames);
+
+			for(int from = 0; from < usernames.size(); from += batchSize) {
+				List<String> batch = usernames.subList(from, Math.min(from + batchSize, usernames.size()));
+				List<Cart> snapshots = new ArrayList<>(batch.size());
+				for(String username : batch) {
+					ReentrantLock stripe = stripe(username);
+					stripe.lock();
+					try {
+						snapshots.add(copyOf(carts.get(username).cart));
+					} finally {
+						stripe.unlock();
+					}
+				}
+				try {
+					persist(snapshots);
+				} catch (RuntimeException e) {
+					failedFlushes.increment();
+					dirty.addAll(usernames.subList(from, usernames.size()));
+					logger.error("Couldn't flush {} dirty carts, keeping the journal", usernames.size() - from, e);
+					return;
+				}
+			}
+
+			journal.deleteUpTo(sealed);
+			evictIdle();
+		} catch (IOException e) {
+			failedFlushes.increment();
+			logger.error("Couldn't roll the cart journal", e);
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	@Override
+	public void destroy() throws IOException {
+		flushDirty();
+		journal.close();
+	}
+
+	public int getActiveCarts() {
+		return carts.size();
+	}
+
+	public int getDirtyCarts() {
+		return dirty.size();
+	}
+
+	public long getFlushedCarts() {
+		return flushedCarts.sum();
+	}
+
+	public long getFailedFlushes() {
+		return failedFlushes.sum();
+	}
+
+	private ReentrantLock stripe(String username) {
+		return stripes[(username.hashCode() ^ (username.hashCode() >>> 16)) & (stripes.length - 1)];
+	}
+
+	private void awaitRecovery() {
+		try {
+			recovered.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the cart journal replay", e);
+		}
+	}
+
+	/**
+	 * Returns the user's cart, loading it on a miss. Callers hold the stripe.
+	 */
+	private ActiveCart activeCart(String username) {
+		ActiveCart active = carts.get(username);
+		if(active == null) {
+			Cart cart = transactionTemplate.execute(status -> {
+				User user = userRepository.findByUsername(username);
+				return user == null || user.getCart() == null ? null : copyOf(user.getCart());
+			});
+			if(cart == null) {
+				return null;
+			}
+			active = new ActiveCart(cart);
+			carts.put(username, active);
+		}
+		return active;
+	}
+
+	private void log(String username, long itemId, int quantity, Money unitPrice) {
+		try {
+			journal.append(username, itemId, quantity, unitPrice.getMinorUnits());
+		} catch (IOException e) {
+			throw new UncheckedIOException("Couldn't write the cart journal", e);
+		}
+	}
+
+	private void touch(String username, ActiveCart active) {
+		active.touchedAt = System.currentTimeMillis();
+		dirty.add(username);
+	}
+
+	private boolean setQuantity(Cart cart, long itemId, int quantity, Money unitPrice) {
+		CartLine line = cart.getLines().get(itemId);
+		if(quantity <= 0) {
+			return cart.getLines().remove(itemId) != null;
+		}
+		if(line == null) {
+			Item item = itemCatalog.findById(itemId).orElse(null);
+			if(item == null) {
+				return false;
+			}
+			line = CartLine.CreateCartLine(cart, item, quantity);
+			line.setUnitPrice(unitPrice);
+			cart.getLines().put(itemId, line);
+		} else {
+			line.setQuantity(quantity);
+			line.setUnitPrice(unitPrice);
+		}
+		return true;
+	}
+
+	private void persist(List<Cart> snapshots) {
+		Map<Long, Cart> byId = snapshots.stream().collect(Collectors.toMap(Cart::getId, cart -> cart));
+		transactionTemplate.execute(status -> {
+			for(Cart cart : cartRepository.findAllById(byId.keySet())) {
+				Cart snapshot = byId.get(cart.getId());
+				Map<Long, CartLine> lines = cart.getLines();
+
+				lines.keySet().retainAll(snapshot.getLines().keySet());
+				for(CartLine line : snapshot.getLines().values()) {
+					CartLine persisted = lines.get(line.getItemId());
+					if(persisted == null) {
+						persisted = CartLine.CreateCartLine(cart, line.getItem(), line.getQuantity());
+						persisted.setUnitPrice(line.getUnitPrice());
+						lines.put(line.getItemId(), persisted);
+					} else {
+						// a line removed and added again before the flush has the price of the new add
+						persisted.setQuantity(line.getQuantity());
+						persisted.setUnitPrice(line.getUnitPrice());
+					}
+				}
+				cart.setTotal(snapshot.getTotal());
+			}
+			return null;
+		});
+		flushedCarts.add(snapshots.size());
+	}
+
+	private void evictIdle() {
+		long idleSince = System.currentTimeMillis() - idleMillis;
+		for(Map.Entry<String, ActiveCart> entry : carts.entrySet()) {
+			if(entry.getValue().touchedAt < idleSince) {
+				ReentrantLock stripe = stripe(entry.getKey());
+				stripe.lock();
+				try {
+					if(!dirty.contains(entry.getKey()) && entry.getValue().touchedAt < idleSince) {
+						carts.remove(entry.getKey());
+					}
+				} finally {
+					stripe.unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Detached copy that can be handed out or persisted without holding the stripe.
+	 */
+	private static Cart copyOf(Cart cart) {
+		Cart copy = new Cart();
+		copy.setId(cart.getId());
+		copy.setUser(cart.getUser());
+		copy.setVersion(cart.getVersion());
+
+		Map<Long, CartLine> lines = new HashMap<>();
+		for(CartLine line : cart.getLines().values()) {
+			CartLine lineCopy = CartLine.CreateCartLine(copy, line.getItem(), line.getQuantity());
+			lineCopy.setId(line.getId());
+			lineCopy.setUnitPrice(line.getUnitPrice());
+			lines.put(line.getItemId(), lineCopy);
+		}
+		copy.setLines(lines);
+		copy.setTotal(cart.getTotal());
+		return copy;
+	}
+}
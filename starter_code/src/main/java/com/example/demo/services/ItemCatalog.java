@@ -0,0 +1,131 @@
+package com.example.demo.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+
+/**
+ * Read-through cache in front of {@link ItemRepository} for catalog browsing.
+ * Entries are dropped on any item write, see {@link ItemChangeListener}.
+ */
+@Service
+public class ItemCatalog {
+
+	private final ItemRepository itemRepository;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final BoundedCache<Long, Item> itemsById;
+	private final BoundedCache<String, List<Item>> itemsByName;
+	private final BoundedCache<Boolean, List<Item>> allItems;
+
+	public ItemCatalog(ItemRepository itemRepository,
+					   @Value("${catalog.cache.max-size:10000}") int maxSize,
+					   @Value("${catalog.cache.ttl-seconds:300}") long ttlSeconds) {
+		this.itemRepository = itemRepository;
+
+		long ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+		this.itemsById = new BoundedCache<>(maxSize, ttlMillis);
+		this.itemsByName = new BoundedCache<>(maxSize, ttlMillis);
+		this.allItems = new BoundedCache<>(1, ttlMillis);
+	}
+
+	public List<Item> findAll() {
+		return allItems.get(Boolean.TRUE, all -> Collections.unmodifiableList(itemRepository.findAll()));
+	}
+
+	public Optional<Item> findById(Long id) {
+		return Optional.ofNullable(itemsById.get(id, key -> itemRepository.findById(key).orElse(null)));
+	}
+
+	/**
+	 * The cached items among {@code ids}, plus the rest read in one query.
+	 * Unknown ids are left out of the result.
+	 */
+	public Map<Long, Item> findAllById(Collection<Long> ids) {
+		Map<Long, Item> items = new HashMap<>();
+		List<Long> misses = new ArrayList<>();
+		for(Long id : ids) {
+			Item item = itemsById.get(id);
+			if(item == null) {
+				misses.add(id);
+			} else {
+				items.put(id, item);
+			}
+		}
+		if(!misses.isEmpty()) {
+			for(Item item : itemRepository.findAllById(misses)) {
+				itemsById.put(item.getId(), item);
+				items.put(item.getId(), item);
+			}
+		}
+		return items;
+	}
+
+	public List<Item> findByName(String name) {
+		return itemsByName.get(name, key -> {
+			List<Item> items = itemRepository.findByName(key);
+			return items == null ? null : Collections.unmodifiableList(items);
+		});
+	}
+
+	/**
+	 * Keyset page of the catalog, ordered by id; pass the last id of the
+	 * previous page as {@code afterId}. Not cached, pages are cheap index scans.
+	 */
+	public List<Item> findPage(long afterId, int limit) {
+		return itemRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit));
+	}
+
+	/**
+	 * Hands every item to {@code consumer} while reading them off a database
+	 * cursor, detaching each one so the persistence context stays small.
+	 */
+	@Transactional(readOnly = true)
+	public void forEachItem(Consumer<Item> consumer) {
+		try (Stream<Item> items = itemRepository.streamAllOrderById()) {
+			items.forEach(item -> {
+				consumer.accept(item);
+				entityManager.detach(item);
+			});
+		}
+	}
+
+	public void invalidate(Item item) {
+		if(item.getId() != null) {
+			itemsById.invalidate(item.getId());
+		}
+		// the old name isn't known here, so every by-name entry may be stale
+		itemsByName.invalidateAll();
+		allItems.invalidateAll();
+	}
+
+	public Map<String, BoundedCache<?, ?>> getCaches() {
+		Map<String, BoundedCache<?, ?>> caches = new LinkedHashMap<>();
+		caches.put("items_by_id", itemsById);
+		caches.put("items_by_name", itemsByName);
+		caches.put("items_all", allItems);
+		return caches;
+	}
+}
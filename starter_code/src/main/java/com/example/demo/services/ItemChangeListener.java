@@ -0,0 +1,64 @@
+package com.example.demo.services;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.model.persistence.Item;
+
+/**
+ * JPA entity listener keeping the in-process catalog state in step with item
+ * writes. Hibernate obtains it through Spring, hence the autowiring.
+ *
+ * The callbacks run when the statement is flushed, before the transaction
+ * commits; a read in between would cache the old row again, or the search
+ * would find a write that is then rolled back. So inside a transaction the
+ * catalog and the index are only updated once it has committed.
+ */
+public class ItemChangeListener {
+
+	@Autowired
+	private ObjectProvider<ItemCatalog> itemCatalog;
+
+	@Autowired
+	private ObjectProvider<ItemSearchIndex> itemSearchIndex;
+
+	@PostPersist
+	@PostUpdate
+	public void onItemChanged(Item item) {
+		if(itemCatalog != null) {
+			afterCommit(() -> {
+				itemCatalog.ifAvailable(catalog -> catalog.invalidate(item));
+				itemSearchIndex.ifAvailable(index -> index.update(item));
+			});
+		}
+	}
+
+	@PostRemove
+	public void onItemRemoved(Item item) {
+		if(itemCatalog != null) {
+			afterCommit(() -> {
+				itemCatalog.ifAvailable(catalog -> catalog.invalidate(item));
+				itemSearchIndex.ifAvailable(index -> index.remove(item));
+			});
+		}
+	}
+
+	private static void afterCommit(Runnable action) {
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+}
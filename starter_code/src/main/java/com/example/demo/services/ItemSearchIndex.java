@@ -0,0 +1,338 @@
+package com.example.demo.services;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.model.persistence.Item;
+
+/**
+ * In-memory inverted index over item names and descriptions. Terms are kept
+ * sorted so a query token matches both the exact term and, through a range
+ * scan, every term it is a prefix of. All query tokens must match; hits
+ * in the name outrank hits in the description and exact terms outrank prefixes.
+ */
+@Service
+public class ItemSearchIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+	private static final int DESCRIPTION = 1;
+	private static final int NAME = 2;
+
+	private final ItemCatalog itemCatalog;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final NavigableMap<String, Postings> postings = new TreeMap<>();
+	private final Map<Long, Item> documents = new HashMap<>();
+	private final Map<Long, String[]> termsByItem = new HashMap<>();
+
+	public ItemSearchIndex(ItemCatalog itemCatalog) {
+		this.itemCatalog = itemCatalog;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			documents.clear();
+			termsByItem.clear();
+			itemCatalog.forEachItem(this::addDocument);
+		} finally {
+			lock.writeLock().unlock();
+		}
+		logger.info("Indexed {} items for search", documents.size());
+	}
+
+	public void update(Item item) {
+		lock.writeLock().lock();
+		try {
+			removeDocument(item.getId());
+			addDocument(item);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Item item) {
+		lock.writeLock().lock();
+		try {
+			removeDocument(item.getId());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public List<Item> search(String query, int limit) {
+		List<String> tokens = tokenize(query);
+		if(tokens.isEmpty() || limit <= 0) {
+			return Collections.emptyList();
+		}
+
+		lock.readLock().lock();
+		try {
+			Hits hits = null;
+			for(String token : tokens) {
+				Hits tokenHits = match(token);
+				hits = hits == null ? tokenHits : hits.intersect(tokenHits);
+				if(hits.size == 0) {
+					return Collections.emptyList();
+				}
+			}
+			return top(hits, limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Every term the token is a prefix of counts, however many there are. The
+	 * terms' hits are merged in pairs, so each posting is copied once per
+	 * round, a logarithmic number of times, rather than once per term.
+	 */
+	private Hits match(String token) {
+		List<Hits> terms = new ArrayList<>();
+		for(Map.Entry<String, Postings> term
+				: postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+			terms.add(Hits.of(term.getValue(), term.getKey().equals(token) ? 2 : 1));
+		}
+		while (terms.size() > 1) {
+			List<Hits> merged = new ArrayList<>((terms.size() + 1) / 2);
+			for(int i = 0; i < terms.size(); i += 2) {
+				merged.add(i + 1 < terms.size() ? terms.get(i).union(terms.get(i + 1)) : terms.get(i));
+			}
+			terms = merged;
+		}
+		return terms.isEmpty() ? Hits.NONE : terms.get(0);
+	}
+
+	/**
+	 * Scores are small, at most four per query token, so the best hits are
+	 * picked by counting them per score rather than through a heap. Hits come
+	 * in id order, which ranks the smaller id first among equal scores.
+	 */
+	private List<Item> top(Hits hits, int limit) {
+		int maxScore = 0;
+		for(int i = 0; i < hits.size; i++) {
+			maxScore = Math.max(maxScore, hits.scores[i]);
+		}
+		int[] counts = new int[maxScore + 1];
+		for(int i = 0; i < hits.size; i++) {
+			counts[hits.scores[i]]++;
+		}
+
+		// the lowest score that still makes it, and how many of the hits with it do
+		int threshold = maxScore;
+		int taken = counts[threshold];
+		while (taken < limit && threshold > 1) {
+			taken += counts[--threshold];
+		}
+		int atThreshold = counts[threshold] - Math.max(0, taken - limit);
+
+		int[] next = new int[maxScore + 1];
+		for(int score = maxScore - 1; score >= threshold; score--) {
+			next[score] = next[score + 1] + counts[score + 1];
+		}
+		long[] ids = new long[Math.min(taken, limit)];
+		for(int i = 0; i < hits.size; i++) {
+			int score = hits.scores[i];
+			if(score > threshold || score == threshold && atThreshold-- > 0) {
+				ids[next[score]++] = hits.ids[i];
+			}
+		}
+
+		List<Item> items = new ArrayList<>(ids.length);
+		for(long id : ids) {
+			items.add(documents.get(id));
+		}
+		return items;
+	}
+
+	private void addDocument(Item item) {
+		Map<String, Integer> fields = new HashMap<>();
+		tokenize(item.getName()).forEach(term -> fields.merge(term, NAME, (a, b) -> a | b));
+		tokenize(item.getDescription()).forEach(term -> fields.merge(term, DESCRIPTION, (a, b) -> a | b));
+
+		String[] terms = new String[fields.size()];
+		int index = 0;
+		for(Map.Entry<String, Integer> field : fields.entrySet()) {
+			Map.Entry<String, Postings> existing = postings.ceilingEntry(field.getKey());
+			if(existing == null || !existing.getKey().equals(field.getKey())) {
+				existing = new AbstractMap.SimpleImmutableEntry<>(field.getKey(), new Postings());
+				postings.put(existing.getKey(), existing.getValue());
+			}
+			// keep one copy of each term string across all items
+			terms[index++] = existing.getKey();
+			existing.getValue().add(item.getId(), field.getValue());
+		}
+		documents.put(item.getId(), item);
+		termsByItem.put(item.getId(), terms);
+	}
+
+	private void removeDocument(Long id) {
+		String[] terms = termsByItem.remove(id);
+		documents.remove(id);
+		if(terms == null) {
+			return;
+		}
+		for(String term : terms) {
+			Postings ids = postings.get(term);
+			ids.remove(id);
+			if(ids.size == 0) {
+				postings.remove(term);
+			}
+		}
+	}
+
+	private static int weight(int fields) {
+		return (fields & NAME) != 0 ? 2 : 1;
+	}
+
+	static List<String> tokenize(String text) {
+		if(text == null) {
+			return Collections.emptyList();
+		}
+		Set<String> tokens = new LinkedHashSet<>();
+		for(String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+			if(!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return new ArrayList<>(tokens);
+	}
+
+	/**
+	 * Item ids matching a query, sorted, with their scores. Merging these
+	 * instead of a map of boxed ids keeps a search over a large catalog from
+	 * allocating an entry per posting.
+	 */
+	private static final class Hits {
+		private static final Hits NONE = new Hits(0);
+
+		private final long[] ids;
+		private final int[] scores;
+		private int size;
+
+		private Hits(int capacity) {
+			ids = new long[capacity];
+			scores = new int[capacity];
+		}
+
+		private static Hits of(Postings postings, int exact) {
+			Hits hits = new Hits(postings.size);
+			for(int i = 0; i < postings.size; i++) {
+				hits.add(postings.ids[i], weight(postings.fields[i]) * exact);
+			}
+			return hits;
+		}
+
+		/**
+		 * @return the ids in either, with the best score of each
+		 */
+		private Hits union(Hits other) {
+			Hits union = new Hits(size + other.size);
+			int i = 0;
+			int j = 0;
+			while (i < size || j < other.size) {
+				if(j == other.size || i < size && ids[i] < other.ids[j]) {
+					union.add(ids[i], scores[i++]);
+				} else if(i == size || ids[i] > other.ids[j]) {
+					union.add(other.ids[j], other.scores[j++]);
+				} else {
+					union.add(ids[i], Math.max(scores[i++], other.scores[j++]));
+				}
+			}
+			return union;
+		}
+
+		/**
+		 * @return the ids in both, with their scores added up
+		 */
+		private Hits intersect(Hits other) {
+			Hits intersection = new Hits(Math.min(size, other.size));
+			int i = 0;
+			int j = 0;
+			while (i < size && j < other.size) {
+				if(ids[i] < other.ids[j]) {
+					i++;
+				} else if(ids[i] > other.ids[j]) {
+					j++;
+				} else {
+					intersection.add(ids[i], scores[i++] + other.scores[j++]);
+				}
+			}
+			return intersection;
+		}
+
+		private void add(long id, int score) {
+			ids[size] = id;
+			scores[size++] = score;
+		}
+	}
+
+	/**
+	 * Item ids containing a term, sorted, with the fields each one matched in.
+	 * Parallel primitive arrays keep a million-item index at a few bytes per
+	 * posting instead of a boxed map entry each.
+	 */
+	private static final class Postings {
+		private long[] ids = new long[2];
+		private byte[] fields = new byte[2];
+		private int size;
+
+		private void add(long id, int field) {
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			if(index >= 0) {
+				fields[index] = (byte) field;
+				return;
+			}
+			index = -index - 1;
+			if(size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				fields = Arrays.copyOf(fields, size * 2);
+			}
+			System.arraycopy(ids, index, ids, index + 1, size - index);
+			System.arraycopy(fields, index, fields, index + 1, size - index);
+			ids[index] = id;
+			fields[index] = (byte) field;
+			size++;
+		}
+
+		private void remove(long id) {
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			if(index < 0) {
+				return;
+			}
+			System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+			System.arraycopy(fields, index + 1, fields, index, size - index - 1);
+			size--;
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package com.example.demo.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.collections.LongLongHashMap;
+import com.example.demo.collections.TopK;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.SalesResponse;
+
+/**
+ * Running sales figures over the last {@code analytics.window-minutes},
+ * counted as orders are submitted rather than read back from user_order.
+ * The window is a ring of buckets of {@code analytics.bucket-seconds}; when
+ * a bucket falls out of the window its counts are subtracted from the
+ * window totals. The {@code analytics.top-k} best sellers are kept sorted
+ * as units are added and as expired units are taken off again, see
+ * {@link TopK}, so neither recording an order nor reading them costs more
+ * than O(K + log n) per item, however many orders there were.
+ * Counts are in memory and start from zero on every start.
+ */
+@Service
+public class OrderAnalytics {
+
+	private static final class Bucket {
+		long orders;
+		long units;
+		long revenue;
+		final LongLongHashMap unitsByItem = new LongLongHashMap();
+	}
+
+	private final ItemCatalog itemCatalog;
+	private final long bucketMillis;
+	private final Bucket[] buckets;
+	private final LongSupplier clock;
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final LongLongHashMap unitsByItem = new LongLongHashMap();
+	private final TopK topSellers;
+	private long orders;
+	private long units;
+	private long revenue;
+	private long current = -1;
+
+	@Autowired
+	public OrderAnalytics(ItemCatalog itemCatalog,
+			@Value("${analytics.window-minutes:60}") int windowMinutes,
+			@Value("${analytics.bucket-seconds:60}") int bucketSeconds,
+			@Value("${analytics.top-k:100}") int topK) {
+		this(itemCatalog, windowMinutes, bucketSeconds, topK, System::currentTimeMillis);
+	}
+
+	OrderAnalytics(ItemCatalog itemCatalog, int windowMinutes, int bucketSeconds, int topK, LongSupplier clock) {
+		this.itemCatalog = itemCatalog;
+		this.bucketMillis = TimeUnit.SECONDS.toMillis(bucketSeconds);
+		this.buckets = new Bucket[(int) Math.max(1, TimeUnit.MINUTES.toSeconds(windowMinutes) / bucketSeconds)];
+		for(int i = 0; i < buckets.length; i++) {
+			buckets[i] = new Bucket();
+		}
+		this.topSellers = new TopK(topK);
+		this.clock = clock;
+	}
+
+	/**
+	 * Counts a submitted order, a line at a time.
+	 */
+	public void record(UserOrder order) {
+		lock.lock();
+		try {
+			Bucket bucket = advance();
+			bucket.orders++;
+			bucket.revenue += order.getTotal().getMinorUnits();
+			orders++;
+			revenue += order.getTotal().getMinorUnits();
+			order.forEachLine((itemId, quantity) -> {
+				bucket.unitsByItem.addTo(itemId, quantity);
+				bucket.units += quantity;
+				units += quantity;
+				topSellers.offer(itemId, unitsByItem.addTo(itemId, quantity));
+			});
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * The window's totals and its {@code top} best sellers, most units first.
+	 */
+	public SalesResponse getSales(int top) {
+		long[] itemIds = new long[Math.min(top, topSellers.capacity())];
+		long[] itemUnits = new long[itemIds.length];
+		int sellers;
+		long windowOrders;
+		long windowUnits;
+		long windowRevenue;
+		long since;
+		lock.lock();
+		try {
+			advance();
+			sellers = topSellers.copyTo(itemIds, itemUnits, itemIds.length);
+			windowOrders = orders;
+			windowUnits = units;
+			windowRevenue = revenue;
+			since = (current - buckets.length + 1) * bucketMillis;
+		} finally {
+			lock.unlock();
+		}
+
+		List<SalesResponse.TopSeller> topSellers = new ArrayList<>(sellers);
+		for(int i = 0; i < sellers; i++) {
+			String name = itemCatalog.findById(itemIds[i]).map(Item::getName).orElse(null);
+			topSellers.add(new SalesResponse.TopSeller(itemIds[i], name, itemUnits[i]));
+		}
+		return new SalesResponse(Instant.ofEpochMilli(since), windowOrders, windowUnits, Money.ofMinor(windowRevenue),
+				topSellers);
+	}
+
+	public int getMaxTopSellers() {
+		return topSellers.capacity();
+	}
+
+	/**
+	 * Moves the window up to now, expiring the buckets it leaves behind.
+	 *
+	 * @return the bucket for now
+	 */
+	private Bucket advance() {
+		long now = clock.getAsLong() / bucketMillis;
+		if(now > current) {
+			// the buckets now to be reused held the oldest counts of the window
+			long reused = Math.min(now - current, buckets.length);
+			for(long number = now - reused + 1; number <= now; number++) {
+				expire(buckets[(int) (number % buckets.length)]);
+			}
+			current = now;
+		}
+		// a clock that stepped back counts into the newest bucket
+		return buckets[(int) (current % buckets.length)];
+	}
+
+	private void expire(Bucket bucket) {
+		if(bucket.orders == 0) {
+			return;
+		}
+		orders -= bucket.orders;
+		units -= bucket.units;
+		revenue -= bucket.revenue;
+		bucket.unitsByItem.forEach((itemId, count) -> {
+			long left = unitsByItem.addTo(itemId, -count);
+			if(left == 0) {
+				unitsByItem.remove(itemId);
+			}
+			topSellers.offer(itemId, left);
+		});
+		bucket.orders = 0;
+		bucket.units = 0;
+		bucket.revenue = 0;
+		bucket.unitsByItem.clear();
+	}
+}
@@ -0,0 +1,152 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.events.OrderEventLog;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.ImportOrderRequest;
+import com.example.demo.model.responses.OrderResponse;
+
+/**
+ * Bulk order import. Users and items are resolved with one query each, and
+ * orders are persisted in chunks of the JDBC batch size, flushing and
+ * clearing the persistence context after each chunk so the inserts go out as
+ * JDBC batches and the session doesn't grow with the import. Also reads order
+ * history, whole or a page at a time for callers that stream it, and appends
+ * the orders the order event log missed before the last stop.
+ */
+@Service
+public class OrderService {
+
+	private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderEventLog orderEventLog;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	private int batchSize;
+
+	/**
+	 * Persists one order per request, all or nothing. Returns {@code null}
+	 * when a user or an item can't be found.
+	 */
+	@Transactional
+	public List<UserOrder> importOrders(List<ImportOrderRequest> requests) {
+
+		Set<String> usernames = new HashSet<>();
+		Set<Long> itemIds = new HashSet<>();
+		for(ImportOrderRequest request : requests) {
+			usernames.add(request.getUsername());
+			itemIds.addAll(request.getItems().keySet());
+		}
+
+		Map<String, User> users = new HashMap<>();
+		userRepository.findByUsernameIn(usernames).forEach(user -> users.put(user.getUsername(), user));
+		if(!users.keySet().containsAll(usernames)) {
+			usernames.removeAll(users.keySet());
+			logger.warn("Users {} couldn't be found", usernames);
+			return null;
+		}
+
+		Map<Long, Item> items = new HashMap<>();
+		itemRepository.findAllById(itemIds).forEach(item -> items.put(item.getId(), item));
+		if(!items.keySet().containsAll(itemIds)) {
+			itemIds.removeAll(items.keySet());
+			logger.warn("Items {} couldn't be found", itemIds);
+			return null;
+		}
+
+		List<UserOrder> orders = new ArrayList<>(requests.size());
+		for(ImportOrderRequest request : requests) {
+			Cart cart = new Cart();
+			cart.setUser(users.get(request.getUsername()));
+			request.getItems().forEach((itemId, quantity) -> cart.addItem(items.get(itemId), quantity));
+
+			UserOrder order = UserOrder.createFromCart(cart);
+			entityManager.persist(order);
+			orders.add(order);
+
+			if(batchSize > 0 && orders.size() % batchSize == 0) {
+				entityManager.flush();
+				entityManager.clear();
+			}
+		}
+
+		return orders;
+	}
+
+	/**
+	 * All of a user's orders with their lines, oldest first, in one query.
+	 * The responses are built inside the transaction, see
+	 * {@link #findHistoryPage(long, long, int)}.
+	 */
+	@Transactional(readOnly = true)
+	public List<OrderResponse> findHistory(long userId) {
+		return OrderResponse.createFrom(orderRepository.findWithLinesByUserId(userId));
+	}
+
+	/**
+	 * Keyset page of a user's orders with their lines, newest first; pass the
+	 * last id of the previous page as {@code beforeId}. The responses are
+	 * built inside the transaction, so nothing lazy is left to load.
+	 */
+	@Transactional(readOnly = true)
+	public List<OrderResponse> findHistoryPage(long userId, long beforeId, int limit) {
+		List<Long> ids = orderRepository.findIdsByUser(userId, beforeId, PageRequest.of(0, limit));
+		if(ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return OrderResponse.createFrom(orderRepository.findWithLinesByIdIn(ids));
+	}
+
+	/**
+	 * Looks the missed orders up inside the transaction, their events need
+	 * the users' ids.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void appendMissedOrderEvents() {
+		try {
+			orderEventLog.appendMissed(orderRepository::findWithLinesByIdIn);
+		} catch (IOException | RuntimeException e) {
+			logger.error("The missed orders couldn't be appended to the order event log", e);
+		}
+	}
+}
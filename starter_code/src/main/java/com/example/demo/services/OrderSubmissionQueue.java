@@ -0,0 +1,206 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.events.OrderEventLog;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+
+/**
+ * Accepts submitted orders into a bounded in-process queue and persists them
+ * from a small pool of workers, one {@code saveAll} per drained batch. Orders
+ * submitted under an idempotency key are remembered for a while, so a retried
+ * submit gets the order that was accepted the first time instead of a new one.
+ * Orders still queued at shutdown are flushed before the workers stop.
+ * Persisted orders are appended to the {@link OrderEventLog} and counted in
+ * the {@link OrderAnalytics}. An order that can't be persisted, not even on
+ * its own, is remembered as failed and its idempotency key is released, so a
+ * retry creates a new order.
+ */
+@Service
+public class OrderSubmissionQueue implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(OrderSubmissionQueue.class);
+
+	private static final long POLL_MILLIS = 200;
+
+	private final OrderRepository orderRepository;
+	private final OrderEventLog orderEventLog;
+	private final OrderAnalytics orderAnalytics;
+	private final int batchSize;
+
+	private final BlockingQueue<UserOrder> queue;
+	private final Set<String> pending = ConcurrentHashMap.newKeySet();
+	private final Map<String, String> keysByReference = new ConcurrentHashMap<>();
+	private final BoundedCache<String, UserOrder> acceptedByKey;
+	private final BoundedCache<String, Boolean> failed;
+	private final List<Thread> workers = new ArrayList<>();
+
+	private volatile boolean running = true;
+
+	public OrderSubmissionQueue(OrderRepository orderRepository, OrderEventLog orderEventLog,
+			OrderAnalytics orderAnalytics,
+			@Value("${orders.async.queue-capacity:10000}") int queueCapacity,
+			@Value("${orders.async.workers:2}") int workerCount,
+			@Value("${orders.async.batch-size:100}") int batchSize,
+			@Value("${orders.async.idempotency.max-size:10000}") int idempotencyMaxSize,
+			@Value("${orders.async.idempotency.ttl-seconds:86400}") long idempotencyTtlSeconds) {
+		this.orderRepository = orderRepository;
+		this.orderEventLog = orderEventLog;
+		this.orderAnalytics = orderAnalytics;
+		this.batchSize = batchSize;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.acceptedByKey = new BoundedCache<>(idempotencyMaxSize, TimeUnit.SECONDS.toMillis(idempotencyTtlSeconds));
+		this.failed = new BoundedCache<>(idempotencyMaxSize, TimeUnit.SECONDS.toMillis(idempotencyTtlSeconds));
+
+		for(int i = 0; i < workerCount; i++) {
+			Thread worker = new Thread(this::drain, "order-writer-" + i);
+			worker.setDaemon(true);
+			worker.start();
+			workers.add(worker);
+		}
+	}
+
+	/**
+	 * Returns the order accepted earlier under {@code idempotencyKey}, if any.
+	 */
+	public UserOrder findAccepted(String idempotencyKey) {
+		return idempotencyKey == null ? null : acceptedByKey.get(idempotencyKey);
+	}
+
+	/**
+	 * Queues {@code order} for persistence and returns the order that now
+	 * stands for this submit: {@code order} itself, or the one accepted earlier
+	 * under the same idempotency key. Returns {@code null} when the queue is
+	 * full or shutting down; the key is released again in that case.
+	 */
+	public UserOrder submit(UserOrder order, String idempotencyKey) {
+		if(idempotencyKey != null) {
+			UserOrder accepted = acceptedByKey.putIfAbsent(idempotencyKey, order);
+			if(accepted != null) {
+				return accepted;
+			}
+		}
+
+		pending.add(order.getReference());
+		if(idempotencyKey != null) {
+			keysByReference.put(order.getReference(), idempotencyKey);
+		}
+		if(!running || !queue.offer(order)) {
+			pending.remove(order.getReference());
+			keysByReference.remove(order.getReference());
+			if(idempotencyKey != null) {
+				acceptedByKey.invalidate(idempotencyKey);
+			}
+			logger.warn("Order queue is full, rejecting order {}", order.getReference());
+			return null;
+		}
+		return order;
+	}
+
+	public boolean isPending(String reference) {
+		return pending.contains(reference);
+	}
+
+	/**
+	 * Whether the order with {@code reference} was accepted but couldn't be
+	 * persisted. Remembered as long as idempotency keys are.
+	 */
+	public boolean isFailed(String reference) {
+		return failed.get(reference) != null;
+	}
+
+	public int getQueuedOrders() {
+		return queue.size();
+	}
+
+	private void drain() {
+		List<UserOrder> batch = new ArrayList<>(batchSize);
+		while (running || !queue.isEmpty()) {
+			try {
+				UserOrder first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if(first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				persist(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void persist(List<UserOrder> batch) {
+		List<UserOrder> persisted = batch;
+		try {
+			orderRepository.saveAll(batch);
+			logger.debug("Persisted a batch of {} orders", batch.size());
+		} catch (RuntimeException e) {
+			// one bad order shouldn't take the rest of the batch down with it
+			persisted = new ArrayList<>(batch.size());
+			for(UserOrder order : batch) {
+				try {
+					order.setId(null);
+					orderRepository.save(order);
+					persisted.add(order);
+				} catch (RuntimeException failure) {
+					logger.error("Order {} couldn't be persisted", order.getReference(), failure);
+					fail(order);
+				}
+			}
+		} finally {
+			for(UserOrder order : batch) {
+				keysByReference.remove(order.getReference());
+				pending.remove(order.getReference());
+			}
+		}
+
+		persisted.forEach(orderAnalytics::record);
+
+		try {
+			orderEventLog.append(persisted);
+		} catch (IOException | RuntimeException e) {
+			logger.error("{} persisted orders couldn't be written to the order event log, they are appended on the next start",
+					persisted.size(), e);
+		}
+	}
+
+	private void fail(UserOrder order) {
+		// marked failed before it stops being pending, so a poll never sees neither
+		failed.put(order.getReference(), Boolean.TRUE);
+		String key = keysByReference.get(order.getReference());
+		if(key != null && acceptedByKey.get(key) == order) {
+			acceptedByKey.invalidate(key);
+		}
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		running = false;
+		for(Thread worker : workers) {
+			worker.join(TimeUnit.SECONDS.toMillis(30));
+		}
+		if(!queue.isEmpty()) {
+			logger.error("{} queued orders were not persisted before shutdown", queue.size());
+		}
+	}
+}
@@ -0,0 +1,27 @@
+-- The schema Hibernate maps the entities to, for the fast-start profile, which validates
+-- it instead of updating it. FastStartShould fails when an entity change isn't made here.
+-- Regenerate with the javax.persistence.schema-generation.scripts.* properties and
+-- hibernate.hbm2ddl.delimiter=; rather than editing by hand.
+create sequence cart_line_seq start with 1 increment by 50;
+create sequence cart_seq start with 1 increment by 50;
+create sequence order_line_seq start with 1 increment by 50;
+create sequence user_order_seq start with 1 increment by 50;
+create sequence user_seq start with 1 increment by 50;
+create table cart (id bigint not null, total decimal(19,2), version bigint not null, primary key (id));
+create table cart_line (id bigint not null, item_id bigint not null, quantity integer not null, unit_price decimal(19,2) not null, cart_id bigint not null, primary key (id));
+create table item (id bigint generated by default as identity, description varchar(255) not null, name varchar(255) not null, price decimal(19,2) not null, primary key (id));
+create table order_line (id bigint not null, item_id bigint not null, quantity integer not null, unit_price decimal(19,2) not null, user_order_id bigint not null, primary key (id));
+create table user (id bigint not null, password varchar(255) not null, username varchar(255) not null, cart_id bigint, primary key (id));
+create table user_order (id bigint not null, created_at timestamp not null, reference varchar(36) not null, total decimal(19,2), user_id bigint not null, primary key (id));
+alter table cart_line add constraint uk_cart_line_item unique (cart_id, item_id);
+create index idx_item_name on item (name);
+alter table order_line add constraint uk_order_line_item unique (user_order_id, item_id);
+alter table user add constraint UK_sb8bbouer5wak8vyiiy4pf2bx unique (username);
+create index idx_user_order_user on user_order (user_id, id);
+alter table user_order add constraint idx_user_order_reference unique (reference);
+alter table cart_line add constraint FK8oljrxf47o5d2jrqo0gh0ds8r foreign key (cart_id) references cart;
+alter table cart_line add constraint FKb9j9hh4ns980noj2u704gp1a1 foreign key (item_id) references item;
+alter table order_line add constraint FK5jxg54d3o4jelac6w147o2p8p foreign key (item_id) references item;
+alter table order_line add constraint FKrum94pt8jm8kdpmwuw6joe8cn foreign key (user_order_id) references user_order;
+alter table user add constraint FKtqa69bib34k2c0jhe7afqsao6 foreign key (cart_id) references cart;
+alter table user_order add constraint FKj86u1x7csa8yd68ql2y1ibrou foreign key (user_id) references user;
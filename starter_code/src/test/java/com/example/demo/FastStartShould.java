@@ -0,0 +1,98 @@
+package com.example.demo;
+
+import com.example.demo.controllers.AnalyticsController;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.services.InMemoryCartEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("fast-start")
+@SpringBootTest(properties = {
+        // schema-h2.sql creates the tables, a database shared with other contexts already has them
+        "spring.datasource.url=jdbc:h2:mem:fast-start;DB_CLOSE_DELAY=-1",
+        "orders.events.dir=target/fast-start-order-events"})
+public class FastStartShould {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void validateTheSchemaScriptAgainstTheEntitiesAndSeedIt() {
+
+        // act
+        List<String> names = itemRepository.findAll().stream().map(Item::getName).collect(Collectors.toList());
+
+        // assert
+        assertEquals(2, names.size());
+        assertTrue(names.contains("Round Widget"));
+    }
+
+    @Test
+    public void createControllersOnFirstUse() {
+
+        // arrange
+        String name = context.getBeanNamesForType(AnalyticsController.class)[0];
+        assertTrue(context.getBeanFactory().getBeanDefinition(name).isLazyInit());
+        assertFalse(context.getBeanFactory().containsSingleton(name));
+
+        // act
+        AnalyticsController controller = context.getBean(AnalyticsController.class);
+
+        // assert
+        assertNotNull(controller);
+        assertTrue(context.getBeanFactory().containsSingleton(name));
+    }
+
+    @Test
+    public void publishTheServiceMetricsWithTheContext() {
+
+        // assert
+        assertNotNull(meterRegistry.find("orders.async.queued").gauge());
+        assertNotNull(meterRegistry.find("orders.events.appended").functionCounter());
+        assertNotNull(meterRegistry.find("cart.conflicts").functionCounter());
+        assertNotNull(meterRegistry.find("cache.size").tag("cache", "jwt_verified_tokens").gauge());
+        assertNotNull(meterRegistry.find("logging.events.dropped").functionCounter());
+    }
+
+    @Test
+    public void keepScheduledAndExplicitlyEagerBeansEager() {
+
+        // arrange
+        AnnotatedGenericBeanDefinition scheduled = new AnnotatedGenericBeanDefinition(InMemoryCartEngine.class);
+        AnnotatedGenericBeanDefinition eager = new AnnotatedGenericBeanDefinition(EagerBean.class);
+        AnnotatedGenericBeanDefinition controller = new AnnotatedGenericBeanDefinition(AnalyticsController.class);
+
+        // assert
+        assertTrue(FastStartConfiguration.isEager(scheduled, InMemoryCartEngine.class));
+        assertTrue(FastStartConfiguration.isEager(eager, EagerBean.class));
+        assertFalse(FastStartConfiguration.isEager(controller, AnalyticsController.class));
+    }
+
+    @Lazy(false)
+    static class EagerBean {
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class VirtualThreadsConfigurationShould {
+
+    // Runtime.version().feature() is Java 10, the tests compile for 9
+    private static final boolean VIRTUAL_THREADS =
+            Integer.parseInt(System.getProperty("java.specification.version")) >= 21;
+
+    @Test
+    public void runEachTaskOnANamedVirtualThread() throws Exception {
+        assumeTrue(VIRTUAL_THREADS);
+
+        // arrange
+        ExecutorService executor = VirtualThreadsConfiguration.newVirtualThreadPerTaskExecutor("test-vt-");
+
+        // act
+        Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // assert
+        assertTrue(thread.getName().startsWith("test-vt-"));
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void refuseToStartBeforeJava21() {
+        assumeTrue(!VIRTUAL_THREADS);
+
+        // act
+        VirtualThreadsConfiguration.newVirtualThreadPerTaskExecutor("test-vt-");
+    }
+}
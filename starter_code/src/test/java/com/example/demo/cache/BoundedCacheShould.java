@@ -0,0 +1,148 @@
+package com.example.demo.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedCacheShould {
+
+    private final AtomicLong now = new AtomicLong();
+    private BoundedCache<String, String> sut;
+
+    @Before
+    public void setup() {
+        sut = new BoundedCache<>(2, 100, now::get);
+    }
+
+    @Test
+    public void countHitsAndMisses() {
+
+        // act
+        sut.get("a", key -> "A");
+        sut.get("a", key -> "B");
+
+        // assert
+        assertEquals("A", sut.get("a"));
+        assertEquals(2, sut.getHitCount());
+        assertEquals(1, sut.getMissCount());
+    }
+
+    @Test
+    public void evictTheLeastRecentlyUsedEntryWhenFull() {
+
+        // act
+        sut.put("a", "A");
+        sut.put("b", "B");
+        sut.get("a");
+        sut.put("c", "C");
+
+        // assert
+        assertEquals(2, sut.size());
+        assertNull(sut.get("b"));
+        assertEquals("A", sut.get("a"));
+        assertEquals(1, sut.getEvictionCount());
+    }
+
+    @Test
+    public void expireEntriesAfterTheirTimeToLive() {
+
+        // arrange
+        sut.put("a", "A");
+        sut.put("b", "B", 50);
+
+        // act
+        now.set(60);
+
+        // assert
+        assertNull(sut.get("b"));
+        assertEquals("A", sut.get("a"));
+
+        now.set(100);
+        assertNull(sut.get("a"));
+        assertEquals(2, sut.getEvictionCount());
+    }
+
+    @Test
+    public void notCacheMissingValues() {
+
+        // act
+        sut.get("a", key -> null);
+
+        // assert
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    public void keepTheFirstValueOnPutIfAbsent() {
+
+        // act
+        String first = sut.putIfAbsent("a", "A");
+        String second = sut.putIfAbsent("a", "B");
+
+        // assert
+        assertNull(first);
+        assertEquals("A", second);
+        assertEquals("A", sut.get("a"));
+    }
+
+    @Test
+    public void spareEntriesReadSinceTheLastSweep() {
+
+        // arrange
+        BoundedCache<String, String> cache = new BoundedCache<>(3, 100, now::get);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        cache.get("a");
+        cache.get("c");
+
+        // act
+        cache.put("d", "D");
+
+        // assert
+        assertEquals(3, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("C", cache.get("c"));
+        assertEquals("D", cache.get("d"));
+    }
+
+    @Test
+    public void stayWithinItsSizeUnderConcurrentReadsAndWrites() throws Exception {
+
+        // arrange
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, 60_000);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        List<Future<?>> writers = new ArrayList<>();
+
+        // act
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 10_000;
+            writers.add(threads.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    cache.put(offset + i, i);
+                    cache.get(offset + i / 2);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        threads.shutdown();
+
+        // assert
+        assertTrue(cache.size() <= 100);
+        assertEquals(40_000 - cache.size(), cache.getEvictionCount());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongLongHashMapShould {
+
+    private final LongLongHashMap sut = new LongLongHashMap(4);
+
+    @Test
+    public void readAbsentKeysAsZero() {
+
+        // act
+        long value = sut.get(42L);
+
+        // assert
+        assertEquals(0L, value);
+        assertFalse(sut.containsKey(42L));
+    }
+
+    @Test
+    public void addToTheValueOfAKey() {
+
+        // act
+        sut.addTo(7L, 2);
+        long value = sut.addTo(7L, 3);
+
+        // assert
+        assertEquals(5L, value);
+        assertEquals(5L, sut.get(7L));
+        assertEquals(1, sut.size());
+    }
+
+    @Test
+    public void holdTheKeyZeroLikeAnyOther() {
+
+        // act
+        sut.put(0L, 9L);
+        sut.addTo(0L, 1L);
+
+        // assert
+        assertEquals(10L, sut.get(0L));
+        assertEquals(1, sut.size());
+        assertEquals(10L, sut.remove(0L));
+        assertTrue(sut.isEmpty());
+    }
+
+    @Test
+    public void keepEveryEntryFindableThroughGrowthAndRemovals() {
+
+        // arrange
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(1);
+
+        // act
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals((long) expected.getOrDefault(key, 0L), sut.remove(key));
+                expected.remove(key);
+            } else {
+                expected.merge(key, 1L, Long::sum);
+                sut.addTo(key, 1L);
+            }
+        }
+
+        // assert
+        assertEquals(expected.size(), sut.size());
+        Map<Long, Long> actual = new HashMap<>();
+        sut.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void forgetEverythingOnClear() {
+
+        // arrange
+        sut.put(1L, 1L);
+        sut.put(0L, 1L);
+
+        // act
+        sut.clear();
+
+        // assert
+        assertTrue(sut.isEmpty());
+        assertFalse(sut.containsKey(1L));
+        assertFalse(sut.containsKey(0L));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.collections;
+
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TopKShould {
+
+    private final TopK sut = new TopK(3);
+
+    @Test
+    public void keepTheLargestCountsFirst() {
+
+        // arrange
+        sut.offer(1L, 5);
+        sut.offer(2L, 9);
+        sut.offer(3L, 1);
+        sut.offer(4L, 7);
+
+        // act
+        long[] keys = new long[3];
+        long[] counts = new long[3];
+        int copied = sut.copyTo(keys, counts, 3);
+
+        // assert
+        assertEquals(3, copied);
+        assertArrayEquals(new long[] {2L, 4L, 1L}, keys);
+        assertArrayEquals(new long[] {9L, 7L, 5L}, counts);
+    }
+
+    @Test
+    public void moveAKeyUpAsItsCountGrows() {
+
+        // arrange
+        sut.offer(1L, 5);
+        sut.offer(2L, 4);
+        sut.offer(3L, 3);
+
+        // act
+        sut.offer(3L, 6);
+        long[] keys = new long[2];
+        long[] counts = new long[2];
+        sut.copyTo(keys, counts, 2);
+
+        // assert
+        assertArrayEquals(new long[] {3L, 1L}, keys);
+        assertArrayEquals(new long[] {6L, 5L}, counts);
+        assertEquals(3, sut.size());
+    }
+
+    @Test
+    public void bringUpTheBestOfTheRestWhenATopKeyShrinks() {
+
+        // arrange
+        sut.offer(1L, 9);
+        sut.offer(2L, 8);
+        sut.offer(3L, 7);
+        sut.offer(4L, 6);
+        sut.offer(5L, 5);
+
+        // act
+        sut.offer(1L, 1);
+        sut.remove(2L);
+        long[] keys = new long[3];
+        long[] counts = new long[3];
+        sut.copyTo(keys, counts, 3);
+
+        // assert
+        assertArrayEquals(new long[] {3L, 4L, 5L}, keys);
+        assertArrayEquals(new long[] {7L, 6L, 5L}, counts);
+    }
+
+    @Test
+    public void dropKeysWhoseCountFallsToZero() {
+
+        // arrange
+        sut.offer(1L, 2);
+        sut.offer(2L, 1);
+
+        // act
+        sut.offer(1L, 0);
+
+        // assert
+        assertEquals(1, sut.size());
+    }
+
+    @Test
+    public void matchASortOfEveryCountAsCountsGoUpAndDown() {
+
+        // arrange
+        TopK top = new TopK(10);
+        Map<Long, Long> all = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            // act
+            long key = random.nextInt(200);
+            long count = Math.max(0, all.getOrDefault(key, 0L) + random.nextInt(21) - 8);
+            top.offer(key, count);
+            if (count == 0) {
+                all.remove(key);
+            } else {
+                all.put(key, count);
+            }
+
+            // assert
+            long[] keys = new long[10];
+            long[] counts = new long[10];
+            int copied = top.copyTo(keys, counts, 10);
+            List<Long> expected = all.values().stream().sorted(Comparator.reverseOrder()).limit(10)
+                    .collect(Collectors.toList());
+            assertEquals(expected.size(), copied);
+            for (int j = 0; j < copied; j++) {
+                assertEquals(expected.get(j).longValue(), counts[j]);
+                assertEquals(all.get(keys[j]).longValue(), counts[j]);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.controllers;
+
+import com.example.demo.TestUtils;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.SalesResponse;
+import com.example.demo.services.ItemCatalog;
+import com.example.demo.services.OrderAnalytics;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AnalyticsControllerShould {
+
+    private AnalyticsController sut;
+    private OrderAnalytics orderAnalytics;
+
+    private final ItemCatalog itemCatalog = mock(ItemCatalog.class);
+
+    @Before
+    public void setup() {
+        sut = new AnalyticsController();
+        orderAnalytics = new OrderAnalytics(itemCatalog, 60, 60, 5);
+        TestUtils.injectObjects(sut, "orderAnalytics", orderAnalytics);
+
+        // arrange
+        Item roundItem = Item.CreateItem(1L, "Round", Money.of("10"), "Round Item");
+        when(itemCatalog.findById(1L)).thenReturn(Optional.of(roundItem));
+
+        UserOrder order = new UserOrder();
+        order.addItem(roundItem, 2);
+        orderAnalytics.record(order);
+    }
+
+    @Test
+    public void getSales() {
+
+        // act
+        ResponseEntity<SalesResponse> response = sut.getSales(3);
+
+        // assert
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(1, response.getBody().getOrders());
+        assertEquals(Money.of("20"), response.getBody().getRevenue());
+        assertEquals("Round", response.getBody().getTopSellers().get(0).getName());
+        assertEquals(2, response.getBody().getTopSellers().get(0).getUnits());
+    }
+
+    @Test
+    public void rejectMoreTopSellersThanAreKept() {
+
+        // act
+        ResponseEntity<SalesResponse> response = sut.getSales(6);
+
+        // assert
+        assertEquals(400, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void rejectANonPositiveNumberOfTopSellers() {
+
+        // act
+        ResponseEntity<SalesResponse> response = sut.getSales(0);
+
+        // assert
+        assertEquals(400, response.getStatusCodeValue());
+    }
+}
@@ -2,25 +2,40 @@ package com.example.demo.controllers;
 
 import com.example.demo.TestUtils;
 import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
 import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
 import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartLineRepository;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.ItemRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.BulkModifyCartRequest;
+import com.example.demo.model.requests.CartOperation;
 import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.model.responses.CartResponse;
+import com.example.demo.services.CartService;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 public class CartControllerShould {
 
@@ -29,23 +44,30 @@ public class CartControllerShould {
 
 
     private final CartRepository cartRepository = mock(CartRepository.class);
+    private final CartLineRepository cartLineRepository = mock(CartLineRepository.class);
     private final ItemRepository itemRepository = mock(ItemRepository.class);
     private final UserRepository userRepository = mock(UserRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private CartService cartService;
 
     @Before
     public void setup() {
         sut = new CartController();
+        cartService = new CartService();
 
-        TestUtils.injectObjects(sut, "userRepository", userRepository);
-        TestUtils.injectObjects(sut, "cartRepository", cartRepository);
-        TestUtils.injectObjects(sut, "itemRepository", itemRepository);
+        TestUtils.injectObjects(cartService, "userRepository", userRepository);
+        TestUtils.injectObjects(cartService, "cartRepository", cartRepository);
+        TestUtils.injectObjects(cartService, "cartLineRepository", cartLineRepository);
+        TestUtils.injectObjects(cartService, "itemRepository", itemRepository);
+        TestUtils.injectObjects(cartService, "transactionTemplate", new TransactionTemplate(transactionManager));
+        TestUtils.injectObjects(sut, "cartEngine", cartService);
 
 
         // arrange
         User user = User.CreateUser(1L, "root", "root");
 
-        Item roundItem =  Item.CreateItem(1L, "Round", new BigDecimal(10), "Round item");
-        Item squareItem =  Item.CreateItem(2L, "Square", new BigDecimal(20), "Square item");
+        Item roundItem =  Item.CreateItem(1L, "Round", Money.of("10"), "Round item");
+        Item squareItem =  Item.CreateItem(2L, "Square", Money.of("20"), "Square item");
 
         List<Item> items = new ArrayList<>();
         items.add(roundItem);
@@ -54,10 +76,48 @@ public class CartControllerShould {
         Cart cart = Cart.CreateCart(1L, items, user);
         user.setCart(cart);
 
-        when(userRepository.findByUsername("root")).thenReturn(user);
+        when(userRepository.findCartIdByUsername("root")).thenReturn(1L);
+        when(userRepository.findCartIdByUsername("unauthorized")).thenReturn(null);
         when(itemRepository.findById(1L)).thenReturn(Optional.of(roundItem));
         when(itemRepository.findById(2L)).thenReturn(Optional.of(squareItem));
-        when(cartRepository.save(cart)).thenReturn(cart);
+        when(itemRepository.existsById(anyLong()))
+                .thenAnswer(invocation -> itemRepository.findById(invocation.getArgument(0)).isPresent());
+        when(itemRepository.findById(3L)).thenReturn(Optional.empty());
+        when(cartRepository.findById(1L)).thenReturn(Optional.of(cart));
+        when(cartRepository.getOne(1L)).thenReturn(cart);
+        when(cartLineRepository.findByCartIdAndItemId(eq(1L), anyLong()))
+                .thenAnswer(invocation -> cart.getLines().get(invocation.<Long>getArgument(1)));
+        when(cartLineRepository.save(any(CartLine.class))).thenAnswer(invocation -> {
+            CartLine line = invocation.getArgument(0);
+            cart.getLines().put(line.getItemId(), line);
+            return line;
+        });
+        doAnswer(invocation -> cart.getLines().remove(invocation.<CartLine>getArgument(0).getItemId()))
+                .when(cartLineRepository).delete(any(CartLine.class));
+        when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Item> found = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(id -> items.stream()
+                    .filter(item -> item.getId().equals(id)).forEach(found::add));
+            return found;
+        });
+        when(cartLineRepository.findByCartIdAndItemIdIn(eq(1L), anyCollection())).thenAnswer(invocation -> {
+            List<CartLine> found = new ArrayList<>();
+            invocation.<Collection<Long>>getArgument(1).forEach(id -> {
+                if (cart.getLines().containsKey(id)) {
+                    found.add(cart.getLines().get(id));
+                }
+            });
+            return found;
+        });
+        when(cartRepository.findVersionById(1L)).thenAnswer(invocation -> cart.getVersion());
+        when(cartRepository.incrementTotal(eq(1L), anyLong(), anyLong())).thenAnswer(invocation -> {
+            if (invocation.<Long>getArgument(1) != cart.getVersion()) {
+                return 0;
+            }
+            cart.setTotal(cart.getTotal().plus(Money.ofMinor(invocation.getArgument(2))));
+            cart.setVersion(cart.getVersion() + 1);
+            return 1;
+        });
 
 
         modifyCartRequest = new ModifyCartRequest();
@@ -70,15 +130,15 @@ public class CartControllerShould {
     public void addToCart() {
 
         // act
-        ResponseEntity<Cart> response = sut.addToCart(modifyCartRequest);
-        Cart responseBody = response.getBody();
+        ResponseEntity<CartResponse> response = sut.addToCart(modifyCartRequest);
+        CartResponse responseBody = response.getBody();
 
         // assert
         assertNotNull(response);
         assertEquals(200, response.getStatusCodeValue());
         assertNotNull(responseBody);
         assertEquals(Long.valueOf(1L), responseBody.getId());
-        assertEquals(new BigDecimal(40), responseBody.getTotal());
+        assertEquals(Money.of("40"), responseBody.getTotal());
     }
 
 
@@ -86,22 +146,75 @@ public class CartControllerShould {
     public void removeItemsFromCart() {
 
         // act
-        ResponseEntity<Cart> response = sut.removeFromCart(modifyCartRequest);
-        Cart responseBody = response.getBody();
+        ResponseEntity<CartResponse> response = sut.removeFromCart(modifyCartRequest);
+        CartResponse responseBody = response.getBody();
 
         // assert
         assertNotNull(response);
         assertNotNull(responseBody);
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(Long.valueOf(1L), responseBody.getId());
-        assertEquals(new BigDecimal(20), responseBody.getTotal());
+        assertEquals(Money.of("20"), responseBody.getTotal());
+    }
+
+    @Test
+    public void keepOneLinePerItemWhenAddingQuantities() {
+
+        // act
+        modifyCartRequest.setQuantity(500);
+        ResponseEntity<CartResponse> response = sut.addToCart(modifyCartRequest);
+        CartResponse responseBody = response.getBody();
+
+        // assert
+        assertNotNull(responseBody);
+        assertEquals(2, responseBody.getLines().size());
+        assertEquals(501, responseBody.getQuantity(1L));
+        assertEquals(Money.of("5030"), responseBody.getTotal());
+    }
+
+    @Test
+    public void notRemoveMoreThanTheCartHolds() {
+
+        // act
+        modifyCartRequest.setQuantity(5);
+        ResponseEntity<CartResponse> response = sut.removeFromCart(modifyCartRequest);
+        CartResponse responseBody = response.getBody();
+
+        // assert
+        assertNotNull(responseBody);
+        assertEquals(1, responseBody.getLines().size());
+        assertEquals(Money.of("20"), responseBody.getTotal());
+    }
+
+    @Test
+    public void notRewriteTheWholeCart() {
+
+        // act
+        sut.addToCart(modifyCartRequest);
+        sut.removeFromCart(modifyCartRequest);
+
+        // assert
+        verify(cartRepository, never()).save(any(Cart.class));
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    public void return400WhenQuantityIsNotPositive() {
+
+        // act
+        modifyCartRequest.setQuantity(0);
+        ResponseEntity<CartResponse> cartResponseEntity = sut.addToCart(modifyCartRequest);
+
+        // assert
+        assertNotNull(cartResponseEntity);
+        assertEquals(400, cartResponseEntity.getStatusCodeValue());
     }
 
     @Test
     public void return404WhenAddToCartWithUnAuthorizedUser() {
         // act
         modifyCartRequest.setUsername("unauthorized");
-        ResponseEntity<Cart> cartResponseEntity = sut.addToCart(modifyCartRequest);
+        ResponseEntity<CartResponse> cartResponseEntity = sut.addToCart(modifyCartRequest);
 
         // assert
         assertNotNull(cartResponseEntity);
@@ -113,7 +226,7 @@ public class CartControllerShould {
 
         // act
         modifyCartRequest.setItemId(3L);
-        ResponseEntity<Cart> cartResponseEntity = sut.addToCart(modifyCartRequest);
+        ResponseEntity<CartResponse> cartResponseEntity = sut.addToCart(modifyCartRequest);
 
         // assert
         assertNotNull(cartResponseEntity);
@@ -124,7 +237,7 @@ public class CartControllerShould {
     public void return404WhenUnAuthorizedUserModifiesCart() {
         // act
         modifyCartRequest.setUsername("unauthorized");
-        ResponseEntity<Cart> cartResponseEntity = sut.removeFromCart(modifyCartRequest);
+        ResponseEntity<CartResponse> cartResponseEntity = sut.removeFromCart(modifyCartRequest);
 
         // assert
         assertNotNull(cartResponseEntity);
@@ -137,11 +250,104 @@ public class CartControllerShould {
 
         // act
         modifyCartRequest.setItemId(3L);
-        ResponseEntity<Cart> cartResponseEntity = sut.removeFromCart(modifyCartRequest);
+        ResponseEntity<CartResponse> cartResponseEntity = sut.removeFromCart(modifyCartRequest);
 
         // assert
         assertNotNull(cartResponseEntity);
         assertEquals(404, cartResponseEntity.getStatusCodeValue());
 
     }
+
+    @Test
+    public void retryWhenAnotherWriterChangesTheCartFirst() {
+
+        // arrange
+        when(cartRepository.findVersionById(1L)).thenReturn(7L, 0L);
+
+        // act
+        ResponseEntity<CartResponse> response = sut.addToCart(modifyCartRequest);
+
+        // assert
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(1, cartService.getConflictCount());
+        assertEquals(0, cartService.getExhaustedRetryCount());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(cartRepository, times(2)).incrementTotal(eq(1L), anyLong(), anyLong());
+    }
+
+    @Test
+    public void return409WhenTheCartKeepsChanging() {
+
+        // arrange
+        when(cartRepository.findVersionById(1L)).thenReturn(7L);
+
+        // act
+        ResponseEntity<CartResponse> response = sut.addToCart(modifyCartRequest);
+
+        // assert
+        assertEquals(409, response.getStatusCodeValue());
+        assertEquals(5, cartService.getConflictCount());
+        assertEquals(1, cartService.getExhaustedRetryCount());
+    }
+
+    @Test
+    public void applyABulkChangeWithOneItemQueryAndOneTotalUpdate() {
+
+        // arrange
+        BulkModifyCartRequest request = bulkRequest(
+                CartOperation.CreateCartOperation(CartOperation.Action.ADD, 1L, 3),
+                CartOperation.CreateCartOperation(CartOperation.Action.REMOVE, 2L, 1),
+                CartOperation.CreateCartOperation(CartOperation.Action.ADD, 2L, 2));
+
+        // act
+        ResponseEntity<CartResponse> response = sut.modifyCart(request);
+
+        // assert
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(4, response.getBody().getQuantity(1L));
+        assertEquals(2, response.getBody().getQuantity(2L));
+        assertEquals(Money.of("80"), response.getBody().getTotal());
+        verify(itemRepository, times(1)).findAllById(anyIterable());
+        verify(itemRepository, never()).findById(anyLong());
+        verify(cartRepository, times(1)).incrementTotal(eq(1L), anyLong(), anyLong());
+        verify(cartLineRepository, never()).delete(any(CartLine.class));
+    }
+
+    @Test
+    public void applyNothingWhenABulkChangeHasAnUnknownItem() {
+
+        // arrange
+        BulkModifyCartRequest request = bulkRequest(
+                CartOperation.CreateCartOperation(CartOperation.Action.ADD, 1L, 1),
+                CartOperation.CreateCartOperation(CartOperation.Action.ADD, 3L, 1));
+
+        // act
+        ResponseEntity<CartResponse> response = sut.modifyCart(request);
+
+        // assert
+        assertEquals(404, response.getStatusCodeValue());
+        verify(cartRepository, never()).incrementTotal(anyLong(), anyLong(), anyLong());
+        verify(cartLineRepository, never()).save(any(CartLine.class));
+    }
+
+    @Test
+    public void return400ForAnEmptyOrInvalidBulkChange() {
+
+        // act
+        ResponseEntity<CartResponse> empty = sut.modifyCart(bulkRequest());
+        ResponseEntity<CartResponse> negative = sut.modifyCart(bulkRequest(
+                CartOperation.CreateCartOperation(CartOperation.Action.REMOVE, 1L, -1)));
+
+        // assert
+        assertEquals(400, empty.getStatusCodeValue());
+        assertEquals(400, negative.getStatusCodeValue());
+        verify(userRepository, never()).findCartIdByUsername(any());
+    }
+
+    private static BulkModifyCartRequest bulkRequest(CartOperation... operations) {
+        BulkModifyCartRequest request = new BulkModifyCartRequest();
+        request.setUsername("root");
+        request.setOperations(Arrays.asList(operations));
+        return request;
+    }
 }
@@ -2,26 +2,30 @@ package com.example.demo.controllers;
 
 import com.example.demo.TestUtils;
 import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
 import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.services.ItemCatalog;
+import com.example.demo.services.ItemSearchIndex;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 
-import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 public class ItemControllerShould {
 
     private ItemController sut;
     private Item roundItem;
     private Item squareItem;
+    private ItemCatalog itemCatalog;
+    private ItemSearchIndex itemSearchIndex;
 
     private final ItemRepository itemRepository = mock(ItemRepository.class);
 
@@ -29,10 +33,14 @@ public class ItemControllerShould {
     public void setup() {
 
         sut = new ItemController();
-        TestUtils.injectObjects(sut, "itemRepository", itemRepository);
+        itemCatalog = new ItemCatalog(itemRepository, 100, 60);
+        TestUtils.injectObjects(sut, "itemCatalog", itemCatalog);
 
-        roundItem = Item.CreateItem(1L, "Round", new BigDecimal(10), "Round Item");
-        squareItem = Item.CreateItem(2L, "Square", new BigDecimal(20), "SquareItem");
+        itemSearchIndex = new ItemSearchIndex(itemCatalog);
+        TestUtils.injectObjects(sut, "itemSearchIndex", itemSearchIndex);
+
+        roundItem = Item.CreateItem(1L, "Round", Money.of("10"), "Round Item");
+        squareItem = Item.CreateItem(2L, "Square", Money.of("20"), "SquareItem");
     }
 
     @Test
@@ -91,6 +99,95 @@ public class ItemControllerShould {
         assertTrue(responseBody.containsAll(Arrays.asList(roundItem, squareItem)));
     }
 
+    @Test
+    public void serveRepeatedReadsFromTheCatalogCache() {
+
+        // arrange
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(roundItem));
+        when(itemRepository.findAll()).thenReturn(Arrays.asList(roundItem, squareItem));
+
+        // act
+        sut.getItemById(1L);
+        sut.getItemById(1L);
+        sut.getItems();
+        sut.getItems();
+
+        // assert
+        verify(itemRepository, times(1)).findById(1L);
+        verify(itemRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void reloadItemsAfterInvalidation() {
+
+        // arrange
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(roundItem));
+        sut.getItemById(1L);
+
+        // act
+        itemCatalog.invalidate(roundItem);
+        sut.getItemById(1L);
+
+        // assert
+        verify(itemRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    public void getItemsPageAfterTheGivenId() {
+
+        // arrange
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 10)))
+                .thenReturn(Collections.singletonList(squareItem));
+
+        // act
+        ResponseEntity<List<Item>> response = sut.getItemsPage(1L, 10);
+        List<Item> responseBody = response.getBody();
+
+        // assert
+        assertNotNull(responseBody);
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(Collections.singletonList(squareItem), responseBody);
+    }
+
+    @Test
+    public void return400WhenPageSizeIsOutOfRange() {
+
+        // act
+        ResponseEntity<List<Item>> response = sut.getItemsPage(0L, ItemController.MAX_PAGE_SIZE + 1);
+
+        // assert
+        assertNotNull(response);
+        assertEquals(400, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void searchItemsByNamePrefix() {
+
+        // arrange
+        itemSearchIndex.update(roundItem);
+        itemSearchIndex.update(squareItem);
+
+        // act
+        ResponseEntity<List<Item>> response = sut.searchItems("squ", 20);
+        List<Item> responseBody = response.getBody();
+
+        // assert
+        assertNotNull(responseBody);
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(Collections.singletonList(squareItem), responseBody);
+    }
+
+    @Test
+    public void return404WhenSearchMatchesNothing() {
+
+        // act
+        ResponseEntity<List<Item>> response = sut.searchItems("triangle", 20);
+
+        // assert
+        assertNotNull(response);
+        assertEquals(404, response.getStatusCodeValue());
+    }
+
     @Test
     public void return404WhenNonExistentItem() {
 
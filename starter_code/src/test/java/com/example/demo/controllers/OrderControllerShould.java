@@ -1,23 +1,38 @@
 package com.example.demo.controllers;
 
 import com.example.demo.TestUtils;
+import com.example.demo.events.OrderEventLog;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
 import com.example.demo.model.persistence.repositories.OrderRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.ImportOrderRequest;
+import com.example.demo.model.responses.OrderResponse;
+import com.example.demo.model.responses.OrderSummary;
+import com.example.demo.services.CartEngine;
+import com.example.demo.services.ItemCatalog;
+import com.example.demo.services.OrderAnalytics;
+import com.example.demo.services.OrderService;
+import com.example.demo.services.OrderSubmissionQueue;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotEquals;
 import static org.mockito.Mockito.*;
 
 public class OrderControllerShould {
@@ -27,6 +42,12 @@ public class OrderControllerShould {
 
     private final UserRepository userRepository = mock(UserRepository.class);
     private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final CartEngine cartEngine = mock(CartEngine.class);
+    private final OrderEventLog orderEventLog = mock(OrderEventLog.class);
+    private final OrderAnalytics orderAnalytics = new OrderAnalytics(mock(ItemCatalog.class), 60, 60, 10);
+    // no workers, so accepted orders stay queued
+    private final OrderSubmissionQueue orderSubmissionQueue =
+            new OrderSubmissionQueue(orderRepository, orderEventLog, orderAnalytics, 2, 0, 10, 100, 60);
 
     @Before
     public void setup() {
@@ -34,11 +55,19 @@ public class OrderControllerShould {
 
         TestUtils.injectObjects(sut, "userRepository", userRepository);
         TestUtils.injectObjects(sut, "orderRepository", orderRepository);
+        TestUtils.injectObjects(sut, "orderSubmissionQueue", orderSubmissionQueue);
+        TestUtils.injectObjects(sut, "cartEngine", cartEngine);
+        TestUtils.injectObjects(sut, "orderEventLog", orderEventLog);
+        TestUtils.injectObjects(sut, "orderAnalytics", orderAnalytics);
+
+        OrderService orderService = new OrderService();
+        TestUtils.injectObjects(orderService, "orderRepository", orderRepository);
+        TestUtils.injectObjects(sut, "orderService", orderService);
 
         // arrange
         List<Item> items = new ArrayList<>();
-        Item roundItem = Item.CreateItem(1L, "Round", new BigDecimal(10), "Round Item");
-        Item squareItem = Item.CreateItem(2L, "Square", new BigDecimal(20), "SquareItem");
+        Item roundItem = Item.CreateItem(1L, "Round", Money.of("10"), "Round Item");
+        Item squareItem = Item.CreateItem(2L, "Square", Money.of("20"), "SquareItem");
 
         items.add(roundItem);
         items.add(squareItem);
@@ -52,12 +81,11 @@ public class OrderControllerShould {
 
         userOrder.setId(1L);
         userOrder.setUser(user);
-        userOrder.setItems(items);
-        userOrder.setTotal(cart.getTotal());
+        items.forEach(item -> userOrder.addItem(item, 1));
 
         when(userRepository.findByUsername("root")).thenReturn(user);
         when(orderRepository.save(userOrder)).thenReturn(userOrder);
-        when(orderRepository.findByUser(user)).thenReturn(Collections.singletonList(userOrder));
+        when(orderRepository.findWithLinesByUserId(1L)).thenReturn(Collections.singletonList(userOrder));
 
     }
 
@@ -65,40 +93,89 @@ public class OrderControllerShould {
     public void submitOrder() {
 
         // act
-        ResponseEntity<UserOrder> response = sut.submit(user.getUsername());
-        UserOrder responseBody = response.getBody();
+        ResponseEntity<OrderResponse> response = sut.submit(user.getUsername());
+        OrderResponse responseBody = response.getBody();
 
         // assert
         assertNotNull(response);
         assertNotNull(responseBody);
 
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals(2, responseBody.getItems().size());
+        assertEquals(2, responseBody.getLines().size());
         assertEquals("root", responseBody.getUser().getUsername());
-        assertEquals(new BigDecimal(30), responseBody.getTotal());
+        assertEquals(Money.of("30"), responseBody.getTotal());
+    }
+
+    @Test
+    public void appendASubmittedOrderToTheEventLogOnceItIsSaved() throws Exception {
+
+        // act
+        sut.submit(user.getUsername());
+
+        // assert
+        InOrder inOrder = inOrder(orderRepository, orderEventLog);
+        inOrder.verify(orderRepository).save(any(UserOrder.class));
+        inOrder.verify(orderEventLog).append(any(UserOrder.class));
+    }
+
+    @Test
+    public void submitTheOrderEvenWhenTheEventLogFails() throws Exception {
+
+        // arrange
+        when(orderEventLog.append(any(UserOrder.class))).thenThrow(new IOException("disk full"));
+
+        // act
+        ResponseEntity<OrderResponse> response = sut.submit(user.getUsername());
+
+        // assert
+        assertEquals(200, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void countSubmittedOrdersInTheSalesAnalyticsOncePersisted() {
+
+        // act
+        sut.submit(user.getUsername());
+        sut.submitAsync(user.getUsername(), "checkout-1");
+
+        // assert
+        assertEquals(1, orderAnalytics.getSales(10).getOrders());
+        assertEquals(Money.of("30"), orderAnalytics.getSales(10).getRevenue());
+    }
+
+    @Test
+    public void flushTheCartBeforeReadingItForAnOrder() {
+
+        // act
+        sut.submit(user.getUsername());
+
+        // assert
+        InOrder inOrder = inOrder(cartEngine, userRepository);
+        inOrder.verify(cartEngine).flush("root");
+        inOrder.verify(userRepository).findByUsername("root");
     }
 
     @Test
     public void getOrdersForUser() {
 
         // act
-        ResponseEntity<List<UserOrder>> response = sut.getOrdersForUser(user.getUsername());
-        List<UserOrder> responseBody = response.getBody();
+        ResponseEntity<List<OrderResponse>> response = sut.getOrdersForUser(user.getUsername());
+        List<OrderResponse> responseBody = response.getBody();
 
         assertNotNull(response);
         assertNotNull(responseBody);
 
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals(2, responseBody.get(0).getItems().size());
+        assertEquals(2, responseBody.get(0).getLines().size());
         assertEquals("root", responseBody.get(0).getUser().getUsername());
-        assertEquals(new BigDecimal(30), responseBody.get(0).getTotal());
+        assertEquals(Money.of("30"), responseBody.get(0).getTotal());
     }
 
     @Test
     public void return404WhenUnAuthorizedUserGetsTheirOrders() {
 
         // act
-        ResponseEntity<List<UserOrder>> response = sut.getOrdersForUser("unauthorized");
+        ResponseEntity<List<OrderResponse>> response = sut.getOrdersForUser("unauthorized");
 
         //
         assertNotNull(response);
@@ -109,10 +186,162 @@ public class OrderControllerShould {
     public void return404WhenUnAuthorizedUserSubmitsOrder() {
 
         // act
-        ResponseEntity<UserOrder> response = sut.submit("unauthorized");
+        ResponseEntity<OrderResponse> response = sut.submit("unauthorized");
 
         // assert
         assertNotNull(response);
         assertEquals(404, response.getStatusCodeValue());
     }
+
+    @Test
+    public void acceptOrderSubmittedAsynchronously() {
+
+        // act
+        ResponseEntity<OrderResponse> response = sut.submitAsync(user.getUsername(), null);
+        OrderResponse responseBody = response.getBody();
+
+        // assert
+        assertNotNull(responseBody);
+        assertEquals(202, response.getStatusCodeValue());
+        assertNotNull(responseBody.getReference());
+        assertEquals("/api/order/reference/" + responseBody.getReference(),
+                response.getHeaders().getLocation().toString());
+        assertEquals(Money.of("30"), responseBody.getTotal());
+        assertEquals(1, orderSubmissionQueue.getQueuedOrders());
+        assertEquals(202, sut.getOrderByReference(responseBody.getReference()).getStatusCodeValue());
+    }
+
+    @Test
+    public void returnTheSameOrderForARepeatedIdempotencyKey() {
+
+        // act
+        OrderResponse first = sut.submitAsync(user.getUsername(), "checkout-1").getBody();
+        OrderResponse second = sut.submitAsync(user.getUsername(), "checkout-1").getBody();
+        OrderResponse other = sut.submitAsync(user.getUsername(), "checkout-2").getBody();
+
+        // assert
+        assertEquals(first.getReference(), second.getReference());
+        assertNotEquals(first.getReference(), other.getReference());
+        assertEquals(2, orderSubmissionQueue.getQueuedOrders());
+    }
+
+    @Test
+    public void return503WhenTheOrderQueueIsFull() {
+
+        // arrange
+        sut.submitAsync(user.getUsername(), null);
+        sut.submitAsync(user.getUsername(), null);
+
+        // act
+        ResponseEntity<OrderResponse> response = sut.submitAsync(user.getUsername(), "checkout-3");
+
+        // assert
+        assertEquals(503, response.getStatusCodeValue());
+        assertEquals(null, orderSubmissionQueue.findAccepted("root:checkout-3"));
+    }
+
+    @Test
+    public void return404WhenUnAuthorizedUserSubmitsOrderAsynchronously() {
+
+        // act
+        ResponseEntity<OrderResponse> response = sut.submitAsync("unauthorized", null);
+
+        // assert
+        assertEquals(404, response.getStatusCodeValue());
+        assertEquals(0, orderSubmissionQueue.getQueuedOrders());
+    }
+
+    @Test
+    public void return410ForAnAcceptedOrderThatCouldNotBePersisted() {
+
+        // arrange
+        OrderSubmissionQueue failingQueue = mock(OrderSubmissionQueue.class);
+        when(failingQueue.isFailed("lost")).thenReturn(true);
+        TestUtils.injectObjects(sut, "orderSubmissionQueue", failingQueue);
+
+        // act
+        ResponseEntity<OrderResponse> response = sut.getOrderByReference("lost");
+
+        // assert
+        assertEquals(410, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void return404ForAnUnknownOrderReference() {
+
+        // act
+        ResponseEntity<OrderResponse> response = sut.getOrderByReference("unknown");
+
+        // assert
+        assertEquals(404, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void return400WhenAnImportedOrderHasNoItems() {
+
+        // arrange
+        ImportOrderRequest request = new ImportOrderRequest();
+        request.setUsername("root");
+        request.setItems(new HashMap<>());
+
+        // act
+        ResponseEntity<List<String>> response = sut.importOrders(Collections.singletonList(request));
+
+        // assert
+        assertEquals(400, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void getAPageOfOrderSummaries() {
+
+        // arrange
+        OrderSummary summary = new OrderSummary(7L, "reference", Money.of("30"), 2, Instant.now());
+        when(orderRepository.findSummariesByUser(1L, 8L, PageRequest.of(0, 1)))
+                .thenReturn(Collections.singletonList(summary));
+
+        // act
+        ResponseEntity<List<OrderSummary>> response = sut.getOrderHistoryPage(user.getUsername(), 8L, 1);
+
+        // assert
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(Collections.singletonList(summary), response.getBody());
+    }
+
+    @Test
+    public void return400ForAnOrderHistoryPageOutOfRange() {
+
+        // act
+        ResponseEntity<List<OrderSummary>> response =
+                sut.getOrderHistoryPage(user.getUsername(), Long.MAX_VALUE, OrderController.MAX_PAGE_SIZE + 1);
+
+        // assert
+        assertEquals(400, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void return404ForTheOrderHistoryPageOfAnUnknownUser() {
+
+        // act
+        ResponseEntity<List<OrderSummary>> response = sut.getOrderHistoryPage("unauthorized", Long.MAX_VALUE, 20);
+
+        // assert
+        assertEquals(404, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void getOrderDetailsOnlyForItsOwner() {
+
+        // arrange
+        UserOrder order = UserOrder.createFromCart(user.getCart());
+        when(orderRepository.findWithLinesByIdAndUsername(1L, "root")).thenReturn(order);
+
+        // act
+        ResponseEntity<OrderResponse> response = sut.getOrderForUser("root", 1L);
+        ResponseEntity<OrderResponse> otherUser = sut.getOrderForUser("other", 1L);
+
+        // assert
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(2, response.getBody().getLines().size());
+        assertEquals(404, otherUser.getStatusCodeValue());
+    }
 }
@@ -5,17 +5,32 @@ import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.model.responses.UserResponse;
+import com.example.demo.security.UserAccount;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class UserControllerShould {
@@ -26,6 +41,7 @@ public class UserControllerShould {
     private final UserRepository userRepository = mock(UserRepository.class);
     private final CartRepository cartRepository = mock(CartRepository.class);
     private final BCryptPasswordEncoder bCryptPasswordEncoder = mock(BCryptPasswordEncoder.class);
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
 
     @Before
     public void setUp() {
@@ -35,6 +51,7 @@ public class UserControllerShould {
         TestUtils.injectObjects(sut, "userRepository", userRepository);
         TestUtils.injectObjects(sut, "cartRepository", cartRepository);
         TestUtils.injectObjects(sut, "bCryptPasswordEncoder", bCryptPasswordEncoder);
+        TestUtils.injectObjects(sut, "authenticationManager", authenticationManager);
 
         // arrange
         when(bCryptPasswordEncoder.encode("rootPassword")).thenReturn("encryptedRoot");
@@ -50,8 +67,8 @@ public class UserControllerShould {
     public void CreateUserWithCredentials() {
 
         // act
-        ResponseEntity<User> response = sut.createUser(createUserRequest);
-        User user = response.getBody();
+        ResponseEntity<UserResponse> response = sut.createUser(createUserRequest);
+        UserResponse user = response.getBody();
 
         // assert
         assertNotNull(response);
@@ -59,7 +76,9 @@ public class UserControllerShould {
         assertNotNull(user);
         assertEquals(0, user.getId());
         assertEquals("root", user.getUsername());
-        assertEquals("encryptedRoot", user.getPassword());
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(saved.capture());
+        assertEquals("encryptedRoot", saved.getValue().getPassword());
     }
 
     @Test
@@ -72,8 +91,8 @@ public class UserControllerShould {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
 
         // act
-        ResponseEntity<User> response = sut.findById(1L);
-        User responseBody = response.getBody();
+        ResponseEntity<UserResponse> response = sut.findById(1L);
+        UserResponse responseBody = response.getBody();
 
         // assert
         assertNotNull(response);
@@ -93,8 +112,8 @@ public class UserControllerShould {
         when(userRepository.findByUsername("root")).thenReturn(user);
 
         // act
-        ResponseEntity<User> response = sut.findByUserName("root");
-        User responseBody = response.getBody();
+        ResponseEntity<UserResponse> response = sut.findByUserName("root");
+        UserResponse responseBody = response.getBody();
 
         // assert
         assertNotNull(response);
@@ -114,7 +133,7 @@ public class UserControllerShould {
         when(userRepository.findByUsername("root")).thenReturn(user);
 
         // act
-        ResponseEntity<User> response = sut.findByUserName("non-existent");
+        ResponseEntity<UserResponse> response = sut.findByUserName("non-existent");
 
         // assert
         assertNotNull(response);
@@ -129,7 +148,7 @@ public class UserControllerShould {
         createUserRequest.setConfirmPassword("false");
 
         // act
-        ResponseEntity<User> response = sut.createUser(createUserRequest);
+        ResponseEntity<UserResponse> response = sut.createUser(createUserRequest);
 
         // assert
         assertNotNull(response);
@@ -145,7 +164,7 @@ public class UserControllerShould {
         createUserRequest.setConfirmPassword("differentRootPassword");
 
         // act
-        ResponseEntity<User> response = sut.createUser(createUserRequest);
+        ResponseEntity<UserResponse> response = sut.createUser(createUserRequest);
 
         // assert
         assertNotNull(response);
@@ -153,4 +172,71 @@ public class UserControllerShould {
         assertNull(response.getBody());
     }
 
+    @Test
+    public void loginThroughTheAuthenticationManager() {
+
+        // arrange
+        UserAccount account = new UserAccount(1L, "root", "encryptedRoot");
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(new UsernamePasswordAuthenticationToken(account, null, account.getAuthorities()));
+
+        // act
+        ResponseEntity<UserResponse> response = sut.login(createUserRequest);
+
+        // assert
+        assertNotNull(response);
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(1L, response.getBody().getId());
+        assertEquals("root", response.getBody().getUsername());
+        verify(userRepository, never()).findByUsername("root");
+    }
+
+    @Test
+    public void return401RatherThan404ForAnUnknownUser() {
+
+        // arrange
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("root")).thenThrow(new UsernameNotFoundException("root"));
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        TestUtils.injectObjects(sut, "authenticationManager", new ProviderManager(Collections.singletonList(provider)));
+
+        // act
+        ResponseEntity<UserResponse> response = sut.login(createUserRequest);
+
+        // assert
+        assertNotNull(response);
+        assertEquals(401, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void return401WhenLoginCredentialsAreRejected() {
+
+        // arrange
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        // act
+        ResponseEntity<UserResponse> response = sut.login(createUserRequest);
+
+        // assert
+        assertNotNull(response);
+        assertEquals(401, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void return503WhenPasswordHashingIsSaturated() {
+
+        // arrange
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new AuthenticationServiceException("Too many password hashing requests in flight"));
+
+        // act
+        ResponseEntity<UserResponse> response = sut.login(createUserRequest);
+
+        // assert
+        assertNotNull(response);
+        assertEquals(503, response.getStatusCodeValue());
+    }
+
 }
@@ -0,0 +1,222 @@
+package com.example.demo.events;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class OrderEventLogShould {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private OrderEventLog sut;
+
+    private final User user = User.CreateUser(7L, "root", "root");
+    private final Item item = Item.CreateItem(1L, "Round", Money.of("10"), "Round Item");
+
+    @Before
+    public void setup() throws IOException {
+        directory = folder.getRoot().toPath();
+        sut = new OrderEventLog(directory, 2, OrderEventLog.Fsync.NEVER, 1000);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        sut.close();
+    }
+
+    @Test
+    public void handBackTheOrdersAsTheyWereAppended() throws IOException {
+
+        // arrange
+        UserOrder order = order(42L);
+
+        // act
+        long offset = sut.append(order);
+        List<String> read = new ArrayList<>();
+        sut.openReader("test").poll(event -> read.add(event.getOffset() + " " + event.getOrderId() + " "
+                + event.getUserId() + " " + event.getReference() + " " + event.getTotalMinorUnits() + " "
+                + event.getCreatedAtEpochMillis() + " " + event.getUnits()), 10);
+
+        // assert
+        assertEquals(0, offset);
+        assertEquals(1, sut.getEndOffset());
+        assertEquals(Arrays.asList("0 42 7 " + order.getReference() + " 3000 1000 3"), read);
+    }
+
+    @Test
+    public void rollOverToANewSegmentWhenOneIsFull() throws IOException {
+
+        // act
+        sut.append(Arrays.asList(order(1L), order(2L), order(3L), order(4L), order(5L)));
+
+        // assert
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), readAll(sut.openReader("test")));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.filter(path -> path.toString().endsWith(".events")).count());
+        }
+    }
+
+    @Test
+    public void tailEventsAppendedAfterTheLastPoll() throws IOException {
+
+        // arrange
+        OrderEventReader reader = sut.openReader("test");
+        sut.append(order(1L));
+        readAll(reader);
+
+        // act
+        sut.append(order(2L));
+        List<Long> read = readAll(reader);
+
+        // assert
+        assertEquals(Arrays.asList(2L), read);
+        assertEquals(0, reader.poll(event -> { }, 10));
+    }
+
+    @Test
+    public void resumeAConsumerFromItsCommittedOffset() throws IOException {
+
+        // arrange
+        sut.append(Arrays.asList(order(1L), order(2L), order(3L)));
+        OrderEventReader reader = sut.openReader("test");
+        reader.poll(event -> { }, 2);
+        reader.commit();
+        reader.poll(event -> { }, 1);
+
+        // act
+        List<Long> read = readAll(sut.openReader("test"));
+
+        // assert
+        assertEquals(Arrays.asList(3L), read);
+        assertEquals(Arrays.asList(1L, 2L, 3L), readAll(sut.openReader("other")));
+    }
+
+    @Test
+    public void continueAfterTheLastEventWhenReopened() throws IOException {
+
+        // arrange
+        sut.append(Arrays.asList(order(1L), order(2L), order(3L)));
+        sut.close();
+
+        // act
+        sut = new OrderEventLog(directory, 2, OrderEventLog.Fsync.ALWAYS, 1000);
+        long offset = sut.append(order(4L));
+
+        // assert
+        assertEquals(3, offset);
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), readAll(sut.openReader("test")));
+    }
+
+    @Test
+    public void endAtARecordCutShortByACrash() throws IOException {
+
+        // arrange
+        sut.append(Arrays.asList(order(1L), order(2L), order(3L), order(4L)));
+        sut.close();
+        // the second segment starts at offset 2, tear its second record
+        try (RandomAccessFile segment = new RandomAccessFile(sut.path(2).toFile(), "rw")) {
+            segment.seek(OrderEvent.RECORD_SIZE + 20);
+            segment.write(0xff);
+        }
+
+        // act
+        sut = new OrderEventLog(directory, 2, OrderEventLog.Fsync.NEVER, 1000);
+
+        // assert
+        assertEquals(3, sut.getEndOffset());
+        assertEquals(Arrays.asList(1L, 2L, 3L), readAll(sut.openReader("test")));
+    }
+
+    @Test(expected = IOException.class)
+    public void refuseASecondLogOnTheSameDirectory() throws IOException {
+
+        // act
+        new OrderEventLog(directory, 2, OrderEventLog.Fsync.NEVER, 1000);
+    }
+
+    @Test
+    public void appendTheOrdersOfAFailedAppendOnTheNextStart() throws IOException {
+
+        // arrange
+        UserOrder broken = order(2L);
+        broken.setReference(null);
+        try {
+            sut.append(Arrays.asList(order(1L), broken));
+            fail("The append should have failed");
+        } catch (RuntimeException expected) {
+        }
+        sut.close();
+        sut = new OrderEventLog(directory, 2, OrderEventLog.Fsync.NEVER, 1000);
+        List<Long> lookedUp = new ArrayList<>();
+
+        // act
+        int appended = sut.appendMissed(orderIds -> {
+            lookedUp.addAll(orderIds);
+            return Arrays.asList(order(2L), order(1L));
+        });
+
+        // assert
+        assertEquals(2, appended);
+        assertEquals(Arrays.asList(1L, 2L), lookedUp);
+        assertEquals(Arrays.asList(1L, 2L), readAll(sut.openReader("test")));
+        assertEquals(0, sut.appendMissed(orderIds -> Collections.emptyList()));
+    }
+
+    @Test
+    public void countTheOrdersOfFailedAppends() throws IOException {
+
+        // arrange
+        UserOrder broken = order(2L);
+        broken.setReference(null);
+
+        // act
+        try {
+            sut.append(Arrays.asList(order(1L), broken));
+        } catch (RuntimeException expected) {
+        }
+
+        // assert
+        assertEquals(2, sut.getFailedAppends());
+        assertEquals(0, sut.getEndOffset());
+    }
+
+    private UserOrder order(long id) {
+        UserOrder order = new UserOrder();
+        order.setId(id);
+        order.setReference(UUID.randomUUID().toString());
+        order.setUser(user);
+        order.addItem(item, 3);
+        order.setCreatedAt(Instant.ofEpochMilli(1000));
+        return order;
+    }
+
+    private static List<Long> readAll(OrderEventReader reader) throws IOException {
+        List<Long> orderIds = new ArrayList<>();
+        while (reader.poll(event -> orderIds.add(event.getOrderId()), 10) > 0) {
+        }
+        return orderIds;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.logging;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class RingBufferAppenderShould {
+
+    private final Logger logger = Logger.getLogger(RingBufferAppenderShould.class);
+    private final CollectingAppender collected = new CollectingAppender();
+    private final RingBufferAppender sut = new RingBufferAppender();
+
+    @Before
+    public void setup() {
+        sut.setName("test");
+        sut.addAppender(collected);
+        logger.setAdditivity(false);
+        logger.addAppender(sut);
+    }
+
+    @After
+    public void tearDown() {
+        logger.removeAppender(sut);
+        logger.setAdditivity(true);
+        sut.close();
+    }
+
+    @Test
+    public void deliverEventsInOrderFromTheBackgroundThread() {
+
+        // arrange
+        sut.activateOptions();
+
+        // act
+        for (int i = 0; i < 100; i++) {
+            logger.warn("event " + i);
+        }
+        sut.close();
+
+        // assert
+        assertEquals(100, collected.messages().size());
+        assertEquals("event 0", collected.messages().get(0));
+        assertEquals("event 99", collected.messages().get(99));
+        assertEquals("log-writer-test", collected.events.get(0).getProperty("writer"));
+        assertEquals(0, sut.getDroppedEvents());
+    }
+
+    @Test
+    public void dropInfoFirstAndEverythingOnceFull() throws InterruptedException {
+
+        // arrange
+        sut.setBufferSize(4);
+        sut.setDiscardingThreshold(2);
+        sut.activateOptions();
+        collected.block();
+        logger.warn("blocks the writer");
+        collected.blocked.await();
+
+        // act
+        logger.info("kept, 4 free");
+        logger.info("kept, 3 free");
+        logger.warn("kept, 2 free");
+        logger.info("dropped, 1 free");
+        logger.warn("kept, 1 free");
+        logger.warn("dropped, full");
+        collected.release.countDown();
+        sut.close();
+
+        // assert
+        assertEquals(2, sut.getDroppedEvents());
+        assertEquals(6, collected.messages().size());
+        assertEquals("Dropped 2 log events, the async buffer was full", collected.messages().get(1));
+        assertEquals("kept, 4 free", collected.messages().get(2));
+        assertEquals("kept, 1 free", collected.messages().get(5));
+    }
+
+    private static class CollectingAppender extends AppenderSkeleton {
+
+        final List<LoggingEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean block;
+
+        void block() {
+            block = true;
+        }
+
+        List<String> messages() {
+            return events.stream().map(LoggingEvent::getRenderedMessage).collect(Collectors.toList());
+        }
+
+        @Override
+        protected void append(LoggingEvent event) {
+            event.setProperty("writer", Thread.currentThread().getName());
+            events.add(event);
+            if (block) {
+                block = false;
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean requiresLayout() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.logging;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferShould {
+
+    @Test
+    public void rejectOffersOnceFull() {
+
+        // arrange
+        RingBuffer<Integer> sut = new RingBuffer<>(3);
+
+        // act
+        for (int i = 0; i < sut.capacity(); i++) {
+            assertTrue(sut.offer(i));
+        }
+        boolean accepted = sut.offer(99);
+
+        // assert
+        assertFalse(accepted);
+        assertEquals(4, sut.capacity());
+        assertEquals(4, sut.size());
+    }
+
+    @Test
+    public void pollInOfferOrderAcrossWrapArounds() {
+
+        // arrange
+        RingBuffer<Integer> sut = new RingBuffer<>(4);
+
+        // act & assert
+        for (int i = 0; i < 10; i++) {
+            assertTrue(sut.offer(i));
+            assertTrue(sut.offer(i + 100));
+            assertEquals(Integer.valueOf(i), sut.poll());
+            assertEquals(Integer.valueOf(i + 100), sut.poll());
+        }
+        assertNull(sut.poll());
+        assertEquals(0, sut.size());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestQueryCountFilterShould {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestQueryCountFilter sut = new RequestQueryCountFilter(meterRegistry);
+    private final QueryCountingStatementInspector inspector = new QueryCountingStatementInspector();
+
+    @Test
+    public void recordTheStatementsOfEachRequestByEndpoint() throws Exception {
+
+        // arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/cart/addToCart");
+        inspector.inspect("select 1 from dual");
+
+        // act
+        sut.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            inspector.inspect("select * from cart");
+            inspector.inspect("update cart set total = ?");
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/cart/addToCart");
+        });
+
+        // assert
+        DistributionSummary queries = meterRegistry.get(RequestQueryCountFilter.METRIC)
+                .tag("method", "POST")
+                .tag("uri", "/api/cart/addToCart")
+                .summary();
+        assertEquals(1, queries.count());
+        assertEquals(2, queries.totalAmount(), 0);
+    }
+}
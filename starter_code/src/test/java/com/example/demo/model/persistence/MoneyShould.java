@@ -0,0 +1,83 @@
+package com.example.demo.model.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class MoneyShould {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MoneyConverter converter = new MoneyConverter();
+
+    @Test
+    public void addAndMultiplyInMinorUnits() {
+
+        // arrange
+        Money price = Money.of("2.99");
+
+        // act
+        Money total = Money.ZERO.plusTimes(price, 3).minus(Money.of("0.97")).plus(price.times(2));
+
+        // assert
+        assertEquals(1398, total.getMinorUnits());
+        assertSame(Money.ZERO, total.plusTimes(price, -4).plus(Money.of("-2.02")));
+    }
+
+    @Test
+    public void printExactDecimals() {
+
+        // assert
+        assertEquals("2.99", Money.of("2.99").toString());
+        assertEquals("0.05", Money.ofMinor(5).toString());
+        assertEquals("-0.05", Money.ofMinor(-5).toString());
+        assertEquals("1495.00", Money.ofMinor(149_500).toString());
+        assertEquals("-12.30", Money.of("-12.3").toString());
+    }
+
+    @Test
+    public void formatIntoAReusedBuffer() {
+
+        // arrange
+        char[] buffer = new char[Money.MAX_LENGTH];
+
+        // act
+        int length = Money.ofMinor(Long.MIN_VALUE).format(buffer);
+        String minimum = new String(buffer, 0, length);
+        length = Money.ofMinor(7).format(buffer);
+
+        // assert
+        assertEquals("-92233720368547758.08", minimum);
+        assertEquals("0.07", new String(buffer, 0, length));
+    }
+
+    @Test
+    public void roundTripThroughJsonAsANumber() throws Exception {
+
+        // act
+        String json = objectMapper.writeValueAsString(Money.of("1.10"));
+        Money read = objectMapper.readValue("1.10", Money.class);
+
+        // assert
+        assertEquals("1.10", json);
+        assertEquals(Money.of("1.1"), read);
+    }
+
+    @Test
+    public void convertToAndFromTheDecimalColumn() {
+
+        // assert
+        assertEquals(new BigDecimal("2.99"), converter.convertToDatabaseColumn(Money.of("2.99")));
+        assertEquals(Money.ofMinor(199), converter.convertToEntityAttribute(new BigDecimal("1.990")));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void rejectFractionsOfACent() {
+
+        // act
+        Money.of("0.001");
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.model.persistence;
+
+import com.example.demo.metrics.QueryCountingStatementInspector;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.services.CartEngine;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.demo.model.persistence.SecondLevelCacheShould$RecordingStatementInspector",
+        // a second context in this JVM can't share the event log directory with the first
+        "orders.events.dir=target/second-level-cache-order-events"})
+public class SecondLevelCacheShould {
+
+    @Autowired
+    private CartEngine cartEngine;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Before
+    public void setup() {
+        // arrange
+        if(userRepository.findByUsername("cached") == null) {
+            User user = new User();
+            user.setUsername("cached");
+            user.setPassword("password");
+            user.setCart(new Cart());
+            userRepository.save(user);
+        }
+        // warm up: the first request reads the user and the items from the database
+        cartEngine.addToCart("cached", 1L, 1);
+        cartEngine.addToCart("cached", 2L, 1);
+        RecordingStatementInspector.clear();
+    }
+
+    @Test
+    public void notSelectUsersOrItemsOnRepeatedCartOperations() {
+
+        // act
+        cartEngine.addToCart("cached", 1L, 1);
+        cartEngine.addToCart("cached", 2L, 2);
+        cartEngine.removeFromCart("cached", 1L, 1);
+
+        // assert
+        List<String> statements = RecordingStatementInspector.statements();
+        assertFalse(statements.isEmpty());
+        assertEquals(Collections.emptyList(), statements.stream()
+                .filter(sql -> sql.contains(" from user ") || sql.contains(" from item "))
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void readTheCartIdWithoutLoadingTheCart() {
+
+        // act
+        Long cartId = userRepository.findCartIdByUsername("cached");
+
+        // assert
+        assertEquals(userRepository.findByUsername("cached").getCart().getId(), cartId);
+        assertEquals(Collections.emptyList(), RecordingStatementInspector.statements());
+    }
+
+    public static class RecordingStatementInspector extends QueryCountingStatementInspector {
+
+        private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql.toLowerCase());
+            return super.inspect(sql);
+        }
+
+        static void clear() {
+            STATEMENTS.clear();
+        }
+
+        static List<String> statements() {
+            synchronized (STATEMENTS) {
+                return new ArrayList<>(STATEMENTS);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.model.persistence;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class UserOrderShould {
+
+    private final Item round = Item.CreateItem(1L, "Round Widget", Money.of("2.99"), "A widget that is round");
+    private final Item square = Item.CreateItem(2L, "Square Widget", Money.of("1.99"), "A widget that is square");
+
+    @Test
+    public void copyOneLinePerLineOfTheCart() {
+
+        // arrange
+        Cart cart = Cart.CreateCart(1L, new ArrayList<>(), User.CreateUser(1L, "test", "password"));
+        cart.addItem(round, 500);
+        cart.addItem(square, 1);
+
+        // act
+        UserOrder order = UserOrder.createFromCart(cart);
+
+        // assert
+        assertEquals(2, order.getLines().size());
+        assertSame(order, order.getLines().get(0).getOrder());
+        assertEquals(501, order.getUnits());
+        assertEquals(500, order.getQuantity(1L));
+        assertEquals(1, order.getQuantity(2L));
+        assertEquals(0, order.getQuantity(3L));
+        assertEquals(Money.of("1496.99"), order.getTotal());
+    }
+
+    @Test
+    public void keepThePriceTheItemWasAddedToTheCartFor() {
+
+        // arrange
+        Cart cart = Cart.CreateCart(1L, new ArrayList<>(), User.CreateUser(1L, "test", "password"));
+        cart.addItem(round, 2);
+        round.setPrice(Money.of("5"));
+
+        // act
+        UserOrder order = UserOrder.createFromCart(cart);
+
+        // assert
+        assertEquals(Money.of("2.99"), order.getLines().get(0).getUnitPrice());
+        assertEquals(Money.of("5.98"), order.getTotal());
+    }
+
+    @Test
+    public void mergeUnitsOfAnItemIntoItsLine() {
+
+        // arrange
+        UserOrder order = new UserOrder();
+        order.addItem(square, 1);
+        order.addItem(round, 1);
+        Map<Long, Long> lines = new HashMap<>();
+
+        // act
+        order.addItem(square, 1);
+        order.forEachLine(lines::put);
+
+        // assert
+        assertEquals(2, order.getLines().size());
+        assertEquals(2, order.getQuantity(2L));
+        assertEquals(2, lines.size());
+        assertEquals(Long.valueOf(2), lines.get(2L));
+        assertEquals(Long.valueOf(1), lines.get(1L));
+        assertEquals(Money.of("6.97"), order.getTotal());
+    }
+
+    @Test
+    public void recountAfterItsLinesAreReplaced() {
+
+        // arrange
+        UserOrder order = new UserOrder();
+        order.addItem(round, 2);
+        order.getQuantity(1L);
+
+        // act
+        order.setLines(new ArrayList<>(Arrays.asList(OrderLine.CreateOrderLine(order, square, 1, square.getPrice()))));
+
+        // assert
+        assertEquals(0, order.getQuantity(1L));
+        assertEquals(1, order.getQuantity(2L));
+    }
+}
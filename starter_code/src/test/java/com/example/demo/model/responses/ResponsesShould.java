@@ -0,0 +1,71 @@
+package com.example.demo.model.responses;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResponsesShould {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private User user;
+    private Cart cart;
+
+    @Before
+    public void setup() {
+        // arrange
+        user = User.CreateUser(1L, "root", "root");
+        cart = Cart.CreateCart(1L, new ArrayList<>(), user);
+        cart.addItem(Item.CreateItem(1L, "Round", Money.of("2.99"), "Round Item"), 2);
+        cart.addItem(Item.CreateItem(2L, "Square", Money.of("1.50"), "Square Item"), 1);
+        user.setCart(cart);
+    }
+
+    @Test
+    public void writeACartTheWayTheEntityWasWritten() throws Exception {
+
+        // act
+        String json = objectMapper.writeValueAsString(CartResponse.createFrom(cart));
+
+        // assert
+        assertEquals(objectMapper.writeValueAsString(cart), json);
+    }
+
+    @Test
+    public void writeAnOrderTheWayTheEntityWasWritten() throws Exception {
+
+        // arrange
+        UserOrder order = UserOrder.createFromCart(cart);
+        order.setId(7L);
+
+        // act
+        String json = objectMapper.writeValueAsString(OrderResponse.createFrom(order));
+
+        // assert
+        assertEquals(objectMapper.writeValueAsString(order), json);
+        assertEquals(objectMapper.writeValueAsString(user), objectMapper.writeValueAsString(UserResponse.createFrom(user)));
+    }
+
+    @Test
+    public void copyOneLinePerOrderedItem() {
+
+        // act
+        OrderResponse response = OrderResponse.createFrom(UserOrder.createFromCart(cart));
+
+        // assert
+        assertEquals(2, response.getLines().size());
+        assertEquals(2, response.getLines().get(0).getQuantity());
+        assertEquals(Money.of("5.98"), response.getLines().get(0).getSubtotal());
+        assertEquals(Money.of("7.48"), response.getTotal());
+    }
+}
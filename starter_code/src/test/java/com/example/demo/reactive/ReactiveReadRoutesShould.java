@@ -0,0 +1,171 @@
+package com.example.demo.reactive;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.ItemResponse;
+import com.example.demo.model.responses.OrderResponse;
+import com.example.demo.model.responses.UserResponse;
+import com.example.demo.security.JWTTokenVerifier;
+import com.example.demo.services.ItemCatalog;
+import com.example.demo.services.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReactiveReadRoutesShould {
+
+    private static final String TOKEN = "Bearer token";
+
+    private ReactiveReadRoutes sut;
+    private WebTestClient client;
+
+    private final ItemCatalog itemCatalog = mock(ItemCatalog.class);
+    private final OrderService orderService = mock(OrderService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JWTTokenVerifier tokenVerifier = mock(JWTTokenVerifier.class);
+
+    @Before
+    public void setup() {
+        sut = new ReactiveReadRoutes(itemCatalog, orderService, userRepository, tokenVerifier,
+                new ObjectMapper(), 2, 2);
+        client = WebTestClient.bindToRouterFunction(sut.routes()).build();
+
+        // arrange
+        when(tokenVerifier.verify("token")).thenReturn("root");
+        when(itemCatalog.findPage(0L, 2)).thenReturn(Arrays.asList(item(1L), item(2L)));
+        when(itemCatalog.findPage(2L, 2)).thenReturn(Collections.singletonList(item(3L)));
+    }
+
+    @After
+    public void tearDown() {
+        sut.destroy();
+    }
+
+    @Test
+    public void streamTheCatalogAPageAtATime() {
+
+        // act
+        List<Long> ids = sut.items().map(ItemResponse::getId).collectList().block();
+
+        // assert
+        assertEquals(Arrays.asList(1L, 2L, 3L), ids);
+        verify(itemCatalog).findPage(0L, 2);
+        verify(itemCatalog).findPage(2L, 2);
+        verify(itemCatalog, never()).findPage(3L, 2);
+    }
+
+    @Test
+    public void readOnlyThePagesTheSubscriberAsksFor() {
+
+        // act
+        sut.items().take(1).blockLast();
+
+        // assert
+        verify(itemCatalog).findPage(0L, 2);
+        verify(itemCatalog, never()).findPage(2L, 2);
+    }
+
+    @Test
+    public void writeTheCatalogAsOneJsonDocumentPerLine() {
+
+        // act
+        String body = client.get().uri("/api/item").header("Authorization", TOKEN)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(ReactiveReadRoutes.NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        // assert
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        for(String line : lines) {
+            assertTrue(line.startsWith("{\"id\":"));
+        }
+    }
+
+    @Test
+    public void streamOrderHistoryNewestFirst() {
+
+        // arrange
+        when(userRepository.findByUsername("root")).thenReturn(User.CreateUser(1L, "root", "root"));
+        when(orderService.findHistoryPage(1L, Long.MAX_VALUE, 2)).thenReturn(Arrays.asList(order(9L), order(7L)));
+        when(orderService.findHistoryPage(1L, 7L, 2)).thenReturn(Collections.emptyList());
+
+        // act
+        String body = client.get().uri("/api/order/history/root").header("Authorization", TOKEN)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        // assert
+        assertEquals(2, body.split("\n").length);
+        assertTrue(body.indexOf("\"id\":9") < body.indexOf("\"id\":7"));
+        verify(orderService).findHistoryPage(1L, 7L, 2);
+    }
+
+    @Test
+    public void answerNotFoundForAnUnknownUser() {
+
+        // act
+        client.get().uri("/api/order/history/nobody").header("Authorization", TOKEN)
+                .exchange()
+
+        // assert
+                .expectStatus().isNotFound();
+        verify(orderService, never()).findHistoryPage(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void rejectRequestsWithoutAToken() {
+
+        // act
+        client.get().uri("/api/item")
+                .exchange()
+
+        // assert
+                .expectStatus().isUnauthorized();
+        verify(itemCatalog, never()).findPage(anyLong(), anyInt());
+    }
+
+    @Test
+    public void rejectRequestsWithAnInvalidToken() {
+
+        // arrange
+        when(tokenVerifier.verify("forged")).thenThrow(new JWTVerificationException("forged"));
+
+        // act
+        client.get().uri("/api/item").header("Authorization", "Bearer forged")
+                .exchange()
+
+        // assert
+                .expectStatus().isUnauthorized();
+    }
+
+    private static Item item(long id) {
+        return Item.CreateItem(id, "Item " + id, Money.of("1.50"), "An item");
+    }
+
+    private static OrderResponse order(long id) {
+        return new OrderResponse(id, "ref-" + id, Collections.emptyList(), new UserResponse(1L, "root"),
+                Money.of("0"), Instant.EPOCH);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.security;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedBCryptPasswordEncoderShould {
+
+    private BoundedBCryptPasswordEncoder sut;
+
+    @Before
+    public void setup() {
+        sut = new BoundedBCryptPasswordEncoder(4, 1, 1, 5_000);
+    }
+
+    @After
+    public void tearDown() {
+        sut.destroy();
+    }
+
+    @Test
+    public void encodeAndMatchPasswords() {
+
+        // act
+        String encoded = sut.encode("rootPassword");
+
+        // assert
+        assertTrue(sut.matches("rootPassword", encoded));
+        assertFalse(sut.matches("otherPassword", encoded));
+    }
+
+    @Test(expected = AuthenticationServiceException.class)
+    public void rejectHashingBeyondTheQueueCapacity() throws InterruptedException {
+
+        // arrange
+        BoundedBCryptPasswordEncoder slow = new BoundedBCryptPasswordEncoder(16, 1, 1, 60_000);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        CountDownLatch started = new CountDownLatch(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                callers.submit(() -> {
+                    started.countDown();
+                    return slow.encode("rootPassword");
+                });
+            }
+            started.await();
+            while (slow.getQueuedTasks() == 0) {
+                Thread.sleep(1);
+            }
+
+            // act
+            slow.encode("rootPassword");
+        } finally {
+            callers.shutdownNow();
+            slow.destroy();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class JWTTokenVerifierShould {
+
+    private JWTTokenVerifier sut;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Before
+    public void setup() {
+        sut = new JWTTokenVerifier(10, meterRegistry);
+    }
+
+    @Test
+    public void returnTheSubjectOfAValidToken() {
+
+        // arrange
+        String token = token("root", System.currentTimeMillis() + 60_000);
+
+        // act
+        String subject = sut.verify(token);
+
+        // assert
+        assertEquals("root", subject);
+    }
+
+    @Test
+    public void serveRepeatedTokensFromTheCache() {
+
+        // arrange
+        String token = token("root", System.currentTimeMillis() + 60_000);
+
+        // act
+        sut.verify(token);
+        sut.verify(token);
+
+        // assert
+        assertEquals(1, sut.getVerifiedTokens().getHitCount());
+        assertEquals(1, sut.getVerifiedTokens().size());
+    }
+
+    @Test
+    public void keyTheCacheByTheDigestOfTheToken() {
+
+        // arrange
+        String token = token("root", System.currentTimeMillis() + 60_000);
+
+        // act
+        sut.verify(token);
+        sut.verify(new String(token.toCharArray()));
+
+        // assert
+        assertEquals(32, JWTTokenVerifier.digest(token).remaining());
+        assertEquals(JWTTokenVerifier.digest(token), JWTTokenVerifier.digest(new String(token.toCharArray())));
+        assertNotEquals(JWTTokenVerifier.digest(token), JWTTokenVerifier.digest(token("admin", System.currentTimeMillis() + 60_000)));
+        assertEquals(1, sut.getVerifiedTokens().getHitCount());
+    }
+
+    @Test
+    public void timeVerificationsByResult() {
+
+        // arrange
+        String token = token("root", System.currentTimeMillis() + 60_000);
+
+        // act
+        sut.verify(token);
+        sut.verify(token);
+        sut.verify(token);
+        try {
+            sut.verify(token("root", System.currentTimeMillis() - 60_000));
+        } catch (JWTVerificationException expected) {
+        }
+
+        // assert
+        assertEquals(1, meterRegistry.get("jwt.verify").tag("result", "verified").timer().count());
+        assertEquals(2, meterRegistry.get("jwt.verify").tag("result", "cached").timer().count());
+        assertEquals(1, meterRegistry.get("jwt.verify").tag("result", "rejected").timer().count());
+    }
+
+    @Test(expected = JWTVerificationException.class)
+    public void rejectTokensSignedWithAnotherKey() {
+
+        // arrange
+        String token = JWT.create()
+                .withSubject("root")
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(HMAC512("anotherkey".getBytes()));
+
+        // act
+        sut.verify(token);
+    }
+
+    @Test(expected = JWTVerificationException.class)
+    public void rejectExpiredTokens() {
+
+        // act
+        sut.verify(token("root", System.currentTimeMillis() - 60_000));
+    }
+
+    private static String token(String subject, long expiresAt) {
+        return JWT.create()
+                .withSubject(subject)
+                .withExpiresAt(new Date(expiresAt))
+                .sign(JWTTokenVerifier.ALGORITHM);
+    }
+}
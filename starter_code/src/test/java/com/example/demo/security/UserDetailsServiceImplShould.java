@@ -0,0 +1,60 @@
+package com.example.demo.security;
+
+import com.example.demo.TestUtils;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class UserDetailsServiceImplShould {
+
+    private UserDetailsServiceImpl sut;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Before
+    public void setup() {
+        sut = new UserDetailsServiceImpl(10, 60);
+        TestUtils.injectObjects(sut, "userRepository", userRepository);
+
+        when(userRepository.findByUsername("root")).thenReturn(User.CreateUser(1L, "root", "encryptedRoot"));
+    }
+
+    @Test
+    public void loadEachUserOnlyOnce() {
+
+        // act
+        sut.loadUserByUsername("root");
+        UserDetails userDetails = sut.loadUserByUsername("root");
+
+        // assert
+        assertEquals("root", userDetails.getUsername());
+        assertEquals("encryptedRoot", userDetails.getPassword());
+        assertEquals(1L, ((UserAccount) userDetails).getId());
+        verify(userRepository, times(1)).findByUsername("root");
+    }
+
+    @Test
+    public void reloadEvictedUsers() {
+
+        // act
+        sut.loadUserByUsername("root");
+        sut.evict("root");
+        sut.loadUserByUsername("root");
+
+        // assert
+        verify(userRepository, times(2)).findByUsername("root");
+    }
+
+    @Test(expected = UsernameNotFoundException.class)
+    public void throwWhenTheUserDoesNotExist() {
+
+        // act
+        sut.loadUserByUsername("unknown");
+    }
+}
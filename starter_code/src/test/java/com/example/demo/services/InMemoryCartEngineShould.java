@@ -0,0 +1,197 @@
+package com.example.demo.services;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CartOperation;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InMemoryCartEngineShould {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CartRepository cartRepository = mock(CartRepository.class);
+    private final ItemCatalog itemCatalog = mock(ItemCatalog.class);
+    private final TransactionTemplate transactionTemplate =
+            new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    // what the database holds
+    private Cart persistedCart;
+
+    private InMemoryCartEngine sut;
+
+    @Before
+    public void setup() throws IOException {
+        // arrange
+        User user = User.CreateUser(1L, "root", "root");
+        persistedCart = Cart.CreateCart(1L, new ArrayList<>(), user);
+        user.setCart(persistedCart);
+
+        when(userRepository.findByUsername("root")).thenReturn(user);
+        when(cartRepository.findAllById(anyIterable())).thenReturn(Collections.singletonList(persistedCart));
+        when(itemCatalog.findById(anyLong())).thenReturn(Optional.empty());
+        when(itemCatalog.findById(1L)).thenReturn(Optional.of(Item.CreateItem(1L, "Round", Money.of("10"), "Round Item")));
+        when(itemCatalog.findById(2L)).thenReturn(Optional.of(Item.CreateItem(2L, "Square", Money.of("20"), "SquareItem")));
+
+        when(itemCatalog.findAllById(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, Item> found = new HashMap<>();
+            invocation.<Collection<Long>>getArgument(0).forEach(id -> itemCatalog.findById(id).ifPresent(item -> found.put(id, item)));
+            return found;
+        });
+
+        sut = engine();
+    }
+
+    @Test
+    public void keepChangesInMemoryUntilTheyAreFlushed() {
+
+        // act
+        sut.addToCart("root", 1L, 2);
+        sut.addToCart("root", 2L, 1);
+        Cart cart = sut.removeFromCart("root", 1L, 1);
+
+        // assert
+        assertEquals(Money.of("30"), cart.getTotal());
+        assertEquals(1, sut.getDirtyCarts());
+        assertEquals(Money.ZERO, persistedCart.getTotal());
+        verify(cartRepository, never()).findAllById(any());
+
+        // act
+        sut.flushDirty();
+
+        // assert
+        assertEquals(Money.of("30"), persistedCart.getTotal());
+        assertEquals(1, persistedCart.getLines().get(1L).getQuantity());
+        assertEquals(1, persistedCart.getLines().get(2L).getQuantity());
+        assertEquals(0, sut.getDirtyCarts());
+        assertEquals(1, sut.getFlushedCarts());
+    }
+
+    @Test
+    public void persistTheCartOfASubmittingUser() {
+
+        // arrange
+        sut.addToCart("root", 2L, 3);
+
+        // act
+        sut.flush("root");
+
+        // assert
+        assertEquals(Money.of("60"), persistedCart.getTotal());
+        assertEquals(3, persistedCart.getLines().get(2L).getQuantity());
+        assertEquals(0, sut.getDirtyCarts());
+    }
+
+    @Test
+    public void persistTheCurrentPriceOfALineReAddedBeforeAFlush() {
+
+        // arrange
+        sut.addToCart("root", 1L, 2);
+        sut.flushDirty();
+        when(itemCatalog.findById(1L)).thenReturn(Optional.of(Item.CreateItem(1L, "Round", Money.of("15"), "Round Item")));
+
+        // act
+        sut.modifyCart("root", Arrays.asList(
+                CartOperation.CreateCartOperation(CartOperation.Action.REMOVE, 1L, 2),
+                CartOperation.CreateCartOperation(CartOperation.Action.ADD, 1L, 2)));
+        sut.flushDirty();
+
+        // assert
+        assertEquals(Money.of("15"), persistedCart.getLines().get(1L).getUnitPrice());
+        assertEquals(Money.of("30"), persistedCart.getTotal());
+    }
+
+    @Test
+    public void replayTheJournalAfterACrash() throws IOException {
+
+        // arrange
+        sut.addToCart("root", 1L, 2);
+        sut.addToCart("root", 2L, 1);
+        sut.removeFromCart("root", 2L, 1);
+
+        // act
+        InMemoryCartEngine restarted = engine();
+
+        // assert
+        assertEquals(Money.of("20"), persistedCart.getTotal());
+        assertEquals(2, persistedCart.getLines().get(1L).getQuantity());
+        assertNull(persistedCart.getLines().get(2L));
+        assertEquals(1, restarted.getFlushedCarts());
+        assertEquals(0, restarted.getDirtyCarts());
+    }
+
+    @Test
+    public void replayABulkChangeAfterACrash() throws IOException {
+
+        // arrange
+        sut.addToCart("root", 1L, 1);
+        Cart cart = sut.modifyCart("root", Arrays.asList(
+                CartOperation.CreateCartOperation(CartOperation.Action.ADD, 2L, 2),
+                CartOperation.CreateCartOperation(CartOperation.Action.REMOVE, 1L, 1),
+                CartOperation.CreateCartOperation(CartOperation.Action.ADD, 1L, 3)));
+
+        // act
+        InMemoryCartEngine restarted = engine();
+
+        // assert
+        assertEquals(Money.of("70"), cart.getTotal());
+        assertEquals(Money.of("70"), persistedCart.getTotal());
+        assertEquals(3, persistedCart.getLines().get(1L).getQuantity());
+        assertEquals(2, persistedCart.getLines().get(2L).getQuantity());
+        assertEquals(1, restarted.getFlushedCarts());
+    }
+
+    @Test
+    public void returnNullForUnknownUsersAndItems() {
+
+        // act
+        Cart unknownUser = sut.addToCart("unknown", 1L, 1);
+        Cart unknownItem = sut.addToCart("root", 3L, 1);
+        Cart unknownBulkItem = sut.modifyCart("root", Arrays.asList(
+                CartOperation.CreateCartOperation(CartOperation.Action.ADD, 1L, 1),
+                CartOperation.CreateCartOperation(CartOperation.Action.ADD, 3L, 1)));
+
+        // assert
+        assertNull(unknownUser);
+        assertNull(unknownItem);
+        assertNull(unknownBulkItem);
+        assertEquals(0, sut.getDirtyCarts());
+    }
+
+    private InMemoryCartEngine engine() throws IOException {
+        InMemoryCartEngine engine = new InMemoryCartEngine(userRepository, cartRepository, itemCatalog,
+                transactionTemplate, folder.getRoot().getPath(), false, 4, 10, 600);
+        engine.recover();
+        return engine;
+    }
+}
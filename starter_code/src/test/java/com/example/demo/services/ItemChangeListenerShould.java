@@ -0,0 +1,87 @@
+package com.example.demo.services;
+
+import com.example.demo.TestUtils;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ItemChangeListenerShould {
+
+    private ItemChangeListener sut;
+    private final ItemCatalog itemCatalog = mock(ItemCatalog.class);
+    private final ItemSearchIndex itemSearchIndex = mock(ItemSearchIndex.class);
+    private final Item item = Item.CreateItem(1L, "Round Widget", Money.of("10"), "A widget that is round");
+
+    @Before
+    public void setup() {
+        sut = new ItemChangeListener();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("itemCatalog", itemCatalog);
+        beanFactory.addBean("itemSearchIndex", itemSearchIndex);
+        TestUtils.injectObjects(sut, "itemCatalog", beanFactory.getBeanProvider(ItemCatalog.class));
+        TestUtils.injectObjects(sut, "itemSearchIndex", beanFactory.getBeanProvider(ItemSearchIndex.class));
+    }
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void updateTheCatalogRightAwayOutsideATransaction() {
+
+        // act
+        sut.onItemChanged(item);
+
+        // assert
+        verify(itemCatalog).invalidate(item);
+        verify(itemSearchIndex).update(item);
+    }
+
+    @Test
+    public void updateTheCatalogOnlyOnceTheTransactionCommits() {
+
+        // arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // act
+        sut.onItemChanged(item);
+        sut.onItemRemoved(item);
+
+        // assert
+        verify(itemCatalog, never()).invalidate(item);
+        verify(itemSearchIndex, never()).update(item);
+        verify(itemSearchIndex, never()).remove(item);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(itemSearchIndex).update(item);
+        verify(itemSearchIndex).remove(item);
+    }
+
+    @Test
+    public void leaveTheCatalogAloneWhenTheTransactionRollsBack() {
+
+        // arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // act
+        sut.onItemChanged(item);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // assert
+        verify(itemCatalog, never()).invalidate(item);
+        verify(itemSearchIndex, never()).update(item);
+    }
+}
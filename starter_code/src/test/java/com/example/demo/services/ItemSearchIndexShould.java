@@ -0,0 +1,137 @@
+package com.example.demo.services;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ItemSearchIndexShould {
+
+    private ItemSearchIndex sut;
+    private Item roundItem;
+    private Item squareItem;
+
+    @Before
+    public void setup() {
+        sut = new ItemSearchIndex(mock(ItemCatalog.class));
+
+        roundItem = Item.CreateItem(1L, "Round Widget", Money.of("10"), "A widget that is round");
+        squareItem = Item.CreateItem(2L, "Square Widget", Money.of("20"), "A widget that is square, not round");
+
+        sut.update(roundItem);
+        sut.update(squareItem);
+    }
+
+    @Test
+    public void matchTermPrefixes() {
+
+        // act
+        List<Item> items = sut.search("wid", 10);
+
+        // assert
+        assertEquals(Arrays.asList(roundItem, squareItem), items);
+    }
+
+    @Test
+    public void rankNameMatchesAboveDescriptionMatches() {
+
+        // act
+        List<Item> items = sut.search("round", 10);
+
+        // assert
+        assertEquals(Arrays.asList(roundItem, squareItem), items);
+    }
+
+    @Test
+    public void requireEveryQueryToken() {
+
+        // act
+        List<Item> items = sut.search("Square wid", 10);
+
+        // assert
+        assertEquals(Arrays.asList(squareItem), items);
+    }
+
+    @Test
+    public void honourTheLimit() {
+
+        // act
+        List<Item> items = sut.search("widget", 1);
+
+        // assert
+        assertEquals(1, items.size());
+    }
+
+    @Test
+    public void matchEveryTermAPrefixExpandsTo() {
+
+        // arrange
+        List<Item> parts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Item part = Item.CreateItem(100L + i, "Part" + i, Money.of("1"), "Spare part " + i);
+            parts.add(part);
+            sut.update(part);
+        }
+        Item exact = Item.CreateItem(1000L, "Part", Money.of("1"), "The plain one");
+        sut.update(exact);
+
+        // act
+        List<Item> items = sut.search("part", 500);
+
+        // assert
+        assertEquals(201, items.size());
+        assertEquals(exact, items.get(0));
+        assertEquals(parts, items.subList(1, 201));
+    }
+
+    @Test
+    public void keepTheSmallerIdsAmongEqualScoresAtTheLimit() {
+
+        // arrange
+        Item roundGadget = Item.CreateItem(3L, "Round Gadget", Money.of("30"), "A gadget");
+        Item widgetBox = Item.CreateItem(4L, "Box", Money.of("40"), "Holds a widget");
+        Item bigWidget = Item.CreateItem(5L, "Big Widget", Money.of("50"), "A big one");
+        sut.update(widgetBox);
+        sut.update(bigWidget);
+        sut.update(roundGadget);
+
+        // act
+        List<Item> items = sut.search("wid", 3);
+
+        // assert
+        assertEquals(Arrays.asList(roundItem, squareItem, bigWidget), items);
+        assertEquals(Arrays.asList(roundItem, squareItem, bigWidget, widgetBox), sut.search("wid", 10));
+    }
+
+    @Test
+    public void reindexChangedItems() {
+
+        // act
+        roundItem.setName("Oval Gadget");
+        roundItem.setDescription("A gadget");
+        sut.update(roundItem);
+
+        // assert
+        assertEquals(Arrays.asList(squareItem), sut.search("round", 10));
+        assertEquals(Arrays.asList(roundItem), sut.search("oval", 10));
+    }
+
+    @Test
+    public void dropRemovedItems() {
+
+        // act
+        sut.remove(squareItem);
+
+        // assert
+        assertTrue(sut.search("square", 10).isEmpty());
+        assertEquals(1, sut.size());
+    }
+}
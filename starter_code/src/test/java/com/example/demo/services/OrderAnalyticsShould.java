@@ -0,0 +1,125 @@
+package com.example.demo.services;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.SalesResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OrderAnalyticsShould {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private OrderAnalytics sut;
+
+    private final AtomicLong now = new AtomicLong(100 * MINUTE);
+    private final ItemCatalog itemCatalog = mock(ItemCatalog.class);
+    private final Item round = Item.CreateItem(1L, "Round", Money.of("10"), "Round Item");
+    private final Item square = Item.CreateItem(2L, "Square", Money.of("20"), "Square Item");
+    private final Item triangle = Item.CreateItem(3L, "Triangle", Money.of("5"), "Triangle Item");
+
+    @Before
+    public void setup() {
+        // a 10 minute window in minute buckets, 2 top sellers
+        sut = new OrderAnalytics(itemCatalog, 10, 60, 2, now::get);
+
+        when(itemCatalog.findById(anyLong())).thenReturn(Optional.empty());
+        when(itemCatalog.findById(1L)).thenReturn(Optional.of(round));
+        when(itemCatalog.findById(2L)).thenReturn(Optional.of(square));
+    }
+
+    @Test
+    public void sumTheOrdersOfTheWindow() {
+
+        // arrange
+        sut.record(order(round, 2, square, 1));
+        now.addAndGet(5 * MINUTE);
+        sut.record(order(square, 3));
+
+        // act
+        SalesResponse sales = sut.getSales(2);
+
+        // assert
+        assertEquals(2, sales.getOrders());
+        assertEquals(6, sales.getUnits());
+        assertEquals(Money.of("100"), sales.getRevenue());
+        assertEquals(Instant.ofEpochMilli(96 * MINUTE), sales.getSince());
+    }
+
+    @Test
+    public void rankItemsByUnitsSold() {
+
+        // arrange
+        sut.record(order(round, 2, square, 1));
+        sut.record(order(square, 3, triangle, 1));
+
+        // act
+        SalesResponse sales = sut.getSales(2);
+
+        // assert
+        assertEquals(Arrays.asList("2 Square 4", "1 Round 2"), describe(sales.getTopSellers()));
+    }
+
+    @Test
+    public void dropOrdersThatFellOutOfTheWindow() {
+
+        // arrange
+        sut.record(order(round, 5));
+        now.addAndGet(5 * MINUTE);
+        sut.record(order(square, 2, triangle, 1));
+
+        // act
+        now.addAndGet(5 * MINUTE);
+        SalesResponse sales = sut.getSales(2);
+
+        // assert
+        assertEquals(1, sales.getOrders());
+        assertEquals(Money.of("45"), sales.getRevenue());
+        assertEquals(Arrays.asList("2 Square 2", "3 null 1"), describe(sales.getTopSellers()));
+    }
+
+    @Test
+    public void startOverAfterAQuietSpellLongerThanTheWindow() {
+
+        // arrange
+        sut.record(order(round, 5));
+
+        // act
+        now.addAndGet(60 * MINUTE);
+        SalesResponse sales = sut.getSales(2);
+
+        // assert
+        assertEquals(0, sales.getOrders());
+        assertEquals(Money.ZERO, sales.getRevenue());
+        assertEquals(Collections.emptyList(), sales.getTopSellers());
+    }
+
+    private static UserOrder order(Object... itemsAndQuantities) {
+        UserOrder order = new UserOrder();
+        for (int i = 0; i < itemsAndQuantities.length; i += 2) {
+            order.addItem((Item) itemsAndQuantities[i], (Integer) itemsAndQuantities[i + 1]);
+        }
+        return order;
+    }
+
+    private static List<String> describe(List<SalesResponse.TopSeller> topSellers) {
+        return topSellers.stream()
+                .map(seller -> seller.getItemId() + " " + seller.getName() + " " + seller.getUnits())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.services;
+
+import com.example.demo.TestUtils;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.ImportOrderRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OrderServiceShould {
+
+    private OrderService sut;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+
+    @Before
+    public void setup() {
+        sut = new OrderService();
+
+        TestUtils.injectObjects(sut, "userRepository", userRepository);
+        TestUtils.injectObjects(sut, "itemRepository", itemRepository);
+        TestUtils.injectObjects(sut, "entityManager", entityManager);
+        TestUtils.injectObjects(sut, "batchSize", 2);
+
+        // arrange
+        when(userRepository.findByUsernameIn(anyCollection()))
+                .thenReturn(Collections.singletonList(User.CreateUser(1L, "root", "root")));
+        when(itemRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(
+                Item.CreateItem(1L, "Round", Money.of("10"), "Round Item"),
+                Item.CreateItem(2L, "Square", Money.of("20"), "SquareItem")));
+    }
+
+    @Test
+    public void importOrdersInFlushedBatches() {
+
+        // arrange
+        List<ImportOrderRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(request("root", 1L, 2, 2L, 1));
+        }
+
+        // act
+        List<UserOrder> orders = sut.importOrders(requests);
+
+        // assert
+        assertEquals(5, orders.size());
+        assertEquals(3, orders.get(0).getUnits());
+        assertEquals(Money.of("40"), orders.get(0).getTotal());
+        assertEquals("root", orders.get(4).getUser().getUsername());
+        verify(entityManager, times(5)).persist(any(UserOrder.class));
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    public void importNothingWhenAUserIsUnknown() {
+
+        // act
+        List<UserOrder> orders = sut.importOrders(Arrays.asList(
+                request("root", 1L, 1, 2L, 1), request("unknown", 1L, 1, 2L, 1)));
+
+        // assert
+        assertNull(orders);
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    public void importNothingWhenAnItemIsUnknown() {
+
+        // act
+        List<UserOrder> orders = sut.importOrders(Collections.singletonList(request("root", 1L, 1, 3L, 1)));
+
+        // assert
+        assertNull(orders);
+        verify(entityManager, never()).persist(any());
+    }
+
+    private static ImportOrderRequest request(String username, long firstItem, int firstQuantity,
+                                              long secondItem, int secondQuantity) {
+        Map<Long, Integer> items = new HashMap<>();
+        items.put(firstItem, firstQuantity);
+        items.put(secondItem, secondQuantity);
+
+        ImportOrderRequest request = new ImportOrderRequest();
+        request.setUsername(username);
+        request.setItems(items);
+        return request;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.demo.services;
+
+import com.example.demo.events.OrderEventLog;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OrderSubmissionQueueShould {
+
+    private OrderSubmissionQueue sut;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderEventLog orderEventLog = mock(OrderEventLog.class);
+    private final OrderAnalytics orderAnalytics = new OrderAnalytics(mock(ItemCatalog.class), 60, 60, 10);
+    private final List<UserOrder> persisted = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        sut = new OrderSubmissionQueue(orderRepository, orderEventLog, orderAnalytics, 100, 1, 10, 100, 60);
+    }
+
+    @Test
+    public void persistQueuedOrdersInBatches() throws InterruptedException {
+
+        // arrange
+        doAnswer(invocation -> {
+            persisted.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        }).when(orderRepository).saveAll(anyList());
+
+        List<UserOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            orders.add(order("order-" + i));
+            sut.submit(orders.get(i), null);
+        }
+
+        // act
+        sut.destroy();
+
+        // assert
+        assertEquals(orders, persisted);
+        assertEquals(0, sut.getQueuedOrders());
+        assertFalse(sut.isPending("order-0"));
+    }
+
+    @Test
+    public void fallBackToSingleSavesWhenABatchFails() throws InterruptedException {
+
+        // arrange
+        when(orderRepository.saveAll(anyList())).thenThrow(new IllegalStateException("constraint violation"));
+        when(orderRepository.save(any(UserOrder.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        sut.submit(order("order-1"), null);
+        sut.submit(order("order-2"), null);
+
+        // act
+        sut.destroy();
+
+        // assert
+        verify(orderRepository, times(2)).save(any(UserOrder.class));
+        assertFalse(sut.isPending("order-1"));
+    }
+
+    @Test
+    public void appendPersistedOrdersToTheEventLog() throws Exception {
+
+        // arrange
+        List<UserOrder> appended = new ArrayList<>();
+        doAnswer(invocation -> {
+            appended.addAll(invocation.<Collection<UserOrder>>getArgument(0));
+            return 0L;
+        }).when(orderEventLog).append(anyCollection());
+
+        List<UserOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            orders.add(order("order-" + i));
+            sut.submit(orders.get(i), null);
+        }
+
+        // act
+        sut.destroy();
+
+        // assert
+        assertEquals(orders, appended);
+    }
+
+    @Test
+    public void appendOnlyTheOrdersThatWerePersisted() throws Exception {
+
+        // arrange
+        UserOrder saved = order("order-1");
+        UserOrder failed = order("order-2");
+        when(orderRepository.saveAll(anyList())).thenThrow(new IllegalStateException("constraint violation"));
+        when(orderRepository.save(saved)).thenReturn(saved);
+        when(orderRepository.save(failed)).thenThrow(new IllegalStateException("constraint violation"));
+
+        sut.submit(saved, null);
+        sut.submit(failed, null);
+
+        // act
+        sut.destroy();
+
+        // assert
+        verify(orderEventLog).append(argThat((Collection<UserOrder> appended) ->
+                appended.equals(Collections.singletonList(saved))));
+    }
+
+    @Test
+    public void markAnOrderFailedAndReleaseItsKeyWhenItCantBePersisted() throws Exception {
+
+        // arrange
+        UserOrder saved = order("order-1");
+        UserOrder failed = order("order-2");
+        when(orderRepository.saveAll(anyList())).thenThrow(new IllegalStateException("constraint violation"));
+        when(orderRepository.save(saved)).thenReturn(saved);
+        when(orderRepository.save(failed)).thenThrow(new IllegalStateException("constraint violation"));
+
+        sut.submit(saved, "checkout-1");
+        sut.submit(failed, "checkout-2");
+
+        // act
+        sut.destroy();
+
+        // assert
+        assertTrue(sut.isFailed("order-2"));
+        assertFalse(sut.isPending("order-2"));
+        assertNull(sut.findAccepted("checkout-2"));
+        assertFalse(sut.isFailed("order-1"));
+        assertEquals(saved, sut.findAccepted("checkout-1"));
+        assertEquals(1, orderAnalytics.getSales(10).getOrders());
+    }
+
+    @Test
+    public void rejectOrdersAfterShutdown() throws InterruptedException {
+
+        // arrange
+        sut.destroy();
+
+        // act
+        UserOrder accepted = sut.submit(order("order-1"), "checkout-1");
+
+        // assert
+        assertNull(accepted);
+        assertNull(sut.findAccepted("checkout-1"));
+    }
+
+    private static UserOrder order(String reference) {
+        UserOrder order = new UserOrder();
+        order.setReference(reference);
+        order.setTotal(Money.ZERO);
+        return order;
+    }
+}